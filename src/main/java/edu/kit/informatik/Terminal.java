@@ -1,9 +1,22 @@
 package edu.kit.informatik;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * This class is a drop in replacement for the KIT Terminal class.
@@ -29,15 +42,25 @@ public final class Terminal {
     public static boolean isTestCreation = false;
     public static boolean useMyErrorMessagesInTestCreation = true;
     public static final String IO_FILE_COMMAND_LINE_ARGS_PREFIX = "! ";
+    /**
+     * Replaces an expected output in an io-file by its length and the SHA-256 hash of its UTF-8 bytes
+     */
+    public static final String IO_FILE_HASH_PREFIX = "#sha256 ";
+    /**
+     * Outputs with more characters are saved by their hash in the test creation
+     */
+    public static int hashOutputsLongerThan = Integer.MAX_VALUE;
 
     private static StringBuilder testPairFile = new StringBuilder();
+    private static StringBuilder createdOutput = new StringBuilder();
     /**
-     * Progressbar stuff
+     * The number of inputs read by tested programs, the latest of them and the number of characters they printed,
+     * for observers on other threads.
+     * Only the thread of the tested program writes them. It uses ordered stores, so it never waits for a fence.
      */
-    private static boolean showTestProgress = false;
-    private static int inputCount = 1;
-    private static int numInput = 0;
-    private static long time = 0;
+    private static final AtomicLong READ_TEST_INPUTS = new AtomicLong();
+    private static final AtomicReference<String> CURRENT_TEST_INPUT = new AtomicReference<>();
+    private static final AtomicLong CAPTURED_TEST_OUTPUT_CHARS = new AtomicLong();
     /**
      * This field represents the input from a test to a tested program
      */
@@ -46,6 +69,12 @@ public final class Terminal {
      * This field represents the output from a tested program to a test
      */
     public static final LinkedList<StringBuilder> OUT_TEST = new LinkedList<>();
+    /**
+     * If set, a test provides further inputs from here when {@code IN_TEST} is empty.
+     * It is asked before the next input is read, so all outputs of the previous inputs are in {@code OUT_TEST}.
+     * Returning null means there are no more inputs.
+     */
+    public static Supplier<String> testInputSource = null;
 
     /**
      * Reads text from the "standard" input stream, buffering characters so as to provide for the efficient reading
@@ -78,20 +107,14 @@ public final class Terminal {
         String out = "Error, " + message;
 
         if (isTest) {
-            if (OUT_TEST.getLast() == null) {
-                OUT_TEST.pollLast();
-                OUT_TEST.add(new StringBuilder());
-            } else {
-                OUT_TEST.getLast().append("\n");
-            }
-            OUT_TEST.getLast().append(out);
+            captureTestOutput(out);
         } else if (isTestCreation) {
             System.err.println(out);
             if (useMyErrorMessagesInTestCreation) {
-                testPairFile.append(out);
-                testPairFile.append("\n");
+                createdOutput.append(out);
+                createdOutput.append("\n");
             } else {
-                testPairFile.append("Error, ...\n");
+                createdOutput.append("Error, ...\n");
             }
         } else {
             System.err.println(out);
@@ -109,21 +132,32 @@ public final class Terminal {
      */
     public static void printLine(final Object object) {
         if (isTest) {
-            if (OUT_TEST.getLast() == null) {
-                OUT_TEST.pollLast();
-                OUT_TEST.add(new StringBuilder());
-            } else {
-                OUT_TEST.getLast().append("\n");
-            }
-            OUT_TEST.getLast().append(object);
+            captureTestOutput(object);
         } else if (isTestCreation) {
             System.out.println(object);
-            testPairFile.append(String.valueOf(object)).append("\n");
+            createdOutput.append(String.valueOf(object)).append("\n");
         } else {
             System.out.println(object);
         }
     }
 
+    /**
+     * Appends a line to the output of the current input of a test
+     */
+    private static void captureTestOutput(final Object object) {
+        StringBuilder output = OUT_TEST.getLast();
+        if (output == null) {
+            OUT_TEST.pollLast();
+            output = new StringBuilder();
+            OUT_TEST.add(output);
+        } else {
+            output.append("\n");
+        }
+        int length = output.length();
+        output.append(object);
+        CAPTURED_TEST_OUTPUT_CHARS.lazySet(CAPTURED_TEST_OUTPUT_CHARS.get() + output.length() - length);
+    }
+
     /**
      * Prints an array of characters and then terminates the line.
      * <p>
@@ -154,6 +188,9 @@ public final class Terminal {
         if (!isTest)
             try {
                 String in = IN.readLine();
+                if (isTestCreation) {
+                    flushCreatedOutput();
+                }
                 if (isTestCreation && !in.equals("quit")) {
                     testPairFile.append("> ").append(in).append("\n");
                 }
@@ -166,16 +203,10 @@ public final class Terminal {
                 throw new RuntimeException(e);
             }
         else {
-            if (showTestProgress) {
-                numInput++;
-                if (numInput % (inputCount / 100) == 0) {
-                    long t = System.nanoTime();
-                    System.out.printf("%03d%% +%.2f ms%n", Math.round((double) numInput / inputCount * 100.0)
-                            , (t - time) / 1000000.0);
-                    time = t;
-                    if (numInput == inputCount) {
-                        System.out.println();
-                    }
+            if (IN_TEST.isEmpty() && testInputSource != null) {
+                String next = testInputSource.get();
+                if (next != null) {
+                    IN_TEST.add(next);
                 }
             }
 
@@ -186,10 +217,41 @@ public final class Terminal {
                     : "Either the executed test doesn't have quit as last input\n"
                     + "or your quitting mechanism doesn't work properly.\n"
                     + "Expect the second option or check the test!";
-            return IN_TEST.poll();
+            String input = IN_TEST.poll();
+            CURRENT_TEST_INPUT.lazySet(input);
+            READ_TEST_INPUTS.lazySet(READ_TEST_INPUTS.get() + 1);
+            return input;
         }
     }
 
+    /**
+     * Counts the inputs tested programs have read so far. This may be called from any thread.
+     *
+     * @return the number of inputs
+     */
+    public static long getReadTestInputs() {
+        return READ_TEST_INPUTS.get();
+    }
+
+    /**
+     * Counts the characters tested programs have printed so far, without the line breaks between the lines.
+     * This may be called from any thread.
+     *
+     * @return the number of characters
+     */
+    public static long getCapturedTestOutputChars() {
+        return CAPTURED_TEST_OUTPUT_CHARS.get();
+    }
+
+    /**
+     * Gets the input a tested program read last. This may be called from any thread.
+     *
+     * @return the input or null if there was none yet
+     */
+    public static String getCurrentTestInput() {
+        return CURRENT_TEST_INPUT.get();
+    }
+
     /**
      * Reads the file with the specified path and returns its content stored in a {@code String} array, whereas the
      * first array field contains the file's first line, the second field contains the second line, and so on.
@@ -214,6 +276,7 @@ public final class Terminal {
 
     /**
      * Save test pairs to file.
+     * If the path ends with '.gz' or '.deflate' the file is compressed accordingly.
      *
      * @param path the path of file
      */
@@ -223,16 +286,117 @@ public final class Terminal {
             return;
         }
 
-        try (PrintWriter out = new PrintWriter(path)) {
+        flushCreatedOutput();
+        try (Writer out = new OutputStreamWriter(openCompressed(path), StandardCharsets.UTF_8)) {
             testPairFile.deleteCharAt(testPairFile.length() - 1);
-            out.print("Automatically created test\n" + testPairFile.toString());
-        } catch (FileNotFoundException e) {
+            out.write("Automatically created test\n");
+            out.append(testPairFile);
+        } catch (IOException e) {
             System.out.println("Unable to open file '" + path + "' for saving test pairs.");
         }
 
         System.out.println("Successfully created '" + path + "'");
     }
 
+    /**
+     * Adds the output of the last input to the created test pairs, hashed if it is too long
+     */
+    private static void flushCreatedOutput() {
+        if (createdOutput.length() - 1 > hashOutputsLongerThan) {
+            createdOutput.setLength(createdOutput.length() - 1);
+            testPairFile.append(IO_FILE_HASH_PREFIX).append(createdOutput.length()).append(' ')
+                    .append(hashOutput(createdOutput)).append("\n");
+        } else {
+            appendEscapedLines(createdOutput);
+        }
+        createdOutput.setLength(0);
+    }
+
+    /**
+     * Appends the lines of an output to the created test pairs.
+     * A line looking like a block directive of an io-file, e.g. '#end', is escaped by another '#'.
+     */
+    private static void appendEscapedLines(final StringBuilder output) {
+        int start = 0;
+        while (start < output.length()) {
+            int end = output.indexOf("\n", start);
+            if (end < 0) {
+                end = output.length();
+            }
+            if (output.charAt(start) == '#' || Character.isWhitespace(output.charAt(start))) {
+                final String line = output.substring(start, end);
+                if (isIOFileDirective(line)) {
+                    testPairFile.append('#');
+                }
+            }
+            testPairFile.append(output, start, Math.min(end + 1, output.length()));
+            start = end + 1;
+        }
+    }
+
+    private static boolean isIOFileDirective(final String line) {
+        return line.startsWith("#repeat ") || line.startsWith("#for ") || line.trim().equals("#end")
+                || line.startsWith("#") && isIOFileDirective(line.substring(1));
+    }
+
+    /**
+     * Computes the SHA-256 hash of the UTF-8 bytes of an output without copying it into a {@code String}
+     *
+     * @param output the output
+     * @return the hash as lowercase hex digits
+     */
+    public static String hashOutput(final CharSequence output) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            //Every java platform has to support SHA-256
+            throw new IllegalStateException(e);
+        }
+
+        final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        final CharBuffer chars = CharBuffer.wrap(output);
+        final ByteBuffer bytes = ByteBuffer.allocate(8 * 1024);
+        CoderResult result;
+        do {
+            result = encoder.encode(chars, bytes, true);
+            bytes.flip();
+            digest.update(bytes);
+            bytes.clear();
+        } while (result.isOverflow());
+        do {
+            result = encoder.flush(bytes);
+            bytes.flip();
+            digest.update(bytes);
+            bytes.clear();
+        } while (result.isOverflow());
+
+        final StringBuilder hex = new StringBuilder(64);
+        for (final byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Opens a file for writing and compresses it if its name ends with '.gz' or '.deflate'
+     *
+     * @param path the path of file
+     * @return the stream to write to
+     * @throws IOException if the file can't be opened
+     */
+    private static OutputStream openCompressed(String path) throws IOException {
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(path), 64 * 1024);
+        if (path.endsWith(".gz")) {
+            return new GZIPOutputStream(out, 64 * 1024);
+        } else if (path.endsWith(".deflate")) {
+            return new DeflaterOutputStream(out);
+        }
+        return out;
+    }
+
     /**
      * Save test paris to timestamped file.
      */
@@ -270,11 +434,4 @@ public final class Terminal {
         useMyErrorMessagesInTestCreation = !doNotUseMyErrorMessages;
         startTestCreation(args);
     }
-
-    public static void setupShowProgress(boolean showTestProgress, int inputCount) {
-        Terminal.showTestProgress = showTestProgress;
-        Terminal.inputCount = inputCount;
-        Terminal.numInput = 0;
-        time = System.nanoTime();
-    }
 }
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import utility.TestBase;
 import utility.TestPair;
+import utility.TimingStatistics;
 
 class FancyProgramTest extends TestBase {
 
@@ -32,6 +33,24 @@ class FancyProgramTest extends TestBase {
         testUsingPairs(testPairs, () -> DummyMain.main(null));
     }
 
+    @Test
+    @DisplayName("Lines in any order")
+    void unordered() {
+        TestPair[] testPairs = {
+                new TestPair("dragon", ""
+                        + "H     )/     H\n"
+                        + "H  /(    )\\  H\n"
+                        + "O=-  ('    -=O\n"
+                        + "O=- .-  -. -=O\n"
+                        + "   \\_ `' _/\n"
+                        + "| |  -^^-  | |\n"
+                        + "|    \\  )    |"
+                        , TestPair.Type.CHECK_UNORDERED)
+        };
+
+        testUsingPairs(testPairs, () -> DummyMain.main(null));
+    }
+
     @Test
     @DisplayName("failing Test")
     void failing() {
@@ -66,6 +85,13 @@ class FancyProgramTest extends TestBase {
          */
     }
 
+    @Test
+    @DisplayName("generated stress test")
+    void stressTest() {
+        testWithIOFile("src/test_examples/fancy_program/data/stress_test.io"
+                , () -> DummyMain.main(null));
+    }
+
     @Test
     @DisplayName("test Creation() (just works if you successfully ran FancyProgramTestCreation")
     void testCreation() {
@@ -76,13 +102,9 @@ class FancyProgramTest extends TestBase {
     @Test
     @DisplayName("performance test")
     void perfTest() {
-        testWithIOFile("src/test_examples/fancy_program/data/expected_test.io"
-                , () -> DummyMain.main(null));
-        testWithIOFile("src/test_examples/fancy_program/data/expected_test.io"
-                , () -> DummyMain.main(null));
-        testWithIOFile("src/test_examples/fancy_program/data/expected_test.io"
-                , () -> DummyMain.main(null));
-        testWithIOFile("src/test_examples/fancy_program/data/expected_test.io"
-                , () -> DummyMain.main(null));
+        TimingStatistics timing = testWithIOFileTimed("src/test_examples/fancy_program/data/expected_test.io"
+                , 5, 20, () -> DummyMain.main(null));
+        //The budget is generous, so a busy machine doesn't fail the test
+        assertMeanWithin(timing, 5000);
     }
-}
\ No newline at end of file
+}
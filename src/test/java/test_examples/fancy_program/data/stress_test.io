@@ -0,0 +1,13 @@
+Stress test: 3 + 100000 * 2 pairs generated from a few lines
+> msg
+WABBALUBBADUPDUP!
+#for i 1..3
+> meaning of life
+42
+#end
+#repeat 100000 i
+> msg
+WABBALUBBADUPDUP!
+> pi
+3.14159...
+#end
@@ -0,0 +1,406 @@
+package utility;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintWriter;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Grades many submissions against many io-files from the command line.
+ * Every combination runs in its own {@link SubmissionClassLoader}, so all runs can execute concurrently in one JVM.
+ * The result is a score matrix written as csv file.
+ * <p>
+ * Usage: {@code java utility.BatchGrader [options] <submissions-dir> <io-file-dir>}
+ * <ul>
+ * <li>{@code --main=<class>} main class of the submissions (default: Main-Class of a jar or edu.kit.informatik.Main)</li>
+ * <li>{@code --threads=<n>} number of concurrent runs (default: number of cores)</li>
+ * <li>{@code --timeout=<seconds>} time limit of a single run (default: 10)</li>
+ * <li>{@code --out=<file>} the csv file to write (default: scores.csv)</li>
+ * <li>{@code --processes=<n>} number of worker processes sharing the io-files (default: 1)</li>
+ * <li>{@code --history=<file>} the durations of previous runs (default: timing-history.properties)</li>
+ * </ul>
+ * Every directory or jar in the submissions-dir is a submission. All plain and compressed io-files below the io-file-dir are used.
+ * The io-files that took longest in previous runs are started first, see {@link TimingHistory}.
+ * With several processes the io-files are split into shards with about the same expected duration.
+ * <p>
+ * Notice: A program calling {@code System.exit} terminates the grader.
+ * A run exceeding the time limit is reported as 'timeout', but its thread can't be stopped and keeps running.
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+public final class BatchGrader {
+    public static final String DEFAULT_MAIN_CLASS = "edu.kit.informatik.Main";
+    private static final String TIMEOUT = "timeout";
+    /**
+     * Internal option of the worker processes, followed by the file listing their io-files
+     */
+    private static final String WORKER_OPTION = "--worker=";
+
+    private final String mainClassOverride;
+    private final int threads;
+    private final long timeoutMillis;
+    private final TimingHistory history;
+
+    /**
+     * Creates a new grader
+     *
+     * @param mainClassOverride is the main class of all submissions or null to detect it
+     * @param threads           is the number of concurrent runs
+     * @param timeoutMillis     is the time limit of a single run
+     * @param history           records the durations of the runs and orders them, the longest first
+     */
+    public BatchGrader(String mainClassOverride, int threads, long timeoutMillis, TimingHistory history) {
+        this.mainClassOverride = mainClassOverride;
+        this.threads = threads;
+        this.timeoutMillis = timeoutMillis;
+        this.history = history;
+    }
+
+    public static void main(String[] args) throws Exception {
+        GradingStats.register();
+        String mainClass = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int processes = 1;
+        long timeoutSeconds = 10;
+        Path out = Paths.get("scores.csv");
+        Path historyFile = TimingHistory.DEFAULT_FILE;
+        Path workerFile = null;
+        List<String> positional = new ArrayList<>();
+
+        for (String arg : args) {
+            if (arg.startsWith("--main=")) {
+                mainClass = value(arg);
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(value(arg));
+            } else if (arg.startsWith("--processes=")) {
+                processes = Integer.parseInt(value(arg));
+            } else if (arg.startsWith("--timeout=")) {
+                timeoutSeconds = Long.parseLong(value(arg));
+            } else if (arg.startsWith("--out=")) {
+                out = Paths.get(value(arg));
+            } else if (arg.startsWith("--history=")) {
+                historyFile = Paths.get(value(arg));
+            } else if (arg.startsWith(WORKER_OPTION)) {
+                workerFile = Paths.get(value(arg));
+            } else {
+                positional.add(arg);
+            }
+        }
+
+        if (positional.size() != 2 || processes < 1) {
+            System.err.println("Usage: java utility.BatchGrader [--main=<class>] [--threads=<n>] [--processes=<n>]"
+                    + " [--timeout=<s>] [--out=<file>] [--history=<file>] <submissions-dir> <io-file-dir>");
+            System.exit(2);
+        }
+
+        TimingHistory history = new TimingHistory(historyFile);
+        List<Path> submissions = listSubmissions(Paths.get(positional.get(0)));
+        BatchGrader grader = new BatchGrader(mainClass, threads, TimeUnit.SECONDS.toMillis(timeoutSeconds), history);
+        if (workerFile != null) {
+            List<Path> ioFiles = new ArrayList<>();
+            for (String line : Files.readAllLines(workerFile, StandardCharsets.UTF_8)) {
+                ioFiles.add(Paths.get(line));
+            }
+            String[][] scores = grader.grade(submissions, ioFiles);
+            history.save();
+            try (ObjectOutputStream scoresOut = new ObjectOutputStream(
+                    Files.newOutputStream(scoresFileOf(workerFile)))) {
+                scoresOut.writeObject(scores);
+            }
+            System.exit(0);
+        }
+
+        List<Path> ioFiles = listIOFiles(Paths.get(positional.get(1)));
+        System.out.println("Grading " + submissions.size() + " submissions with " + ioFiles.size()
+                + " io-files on " + (processes > 1 ? processes + " processes with " : "") + threads + " threads...");
+
+        long start = System.nanoTime();
+        String[][] scores;
+        if (processes > 1) {
+            scores = gradeInProcesses(args, Math.max(1, threads / processes), submissions, ioFiles,
+                    history.splitIntoShards(ioFiles, processes));
+        } else {
+            scores = grader.grade(submissions, ioFiles);
+            history.save();
+        }
+        for (int s = 0; s < submissions.size(); s++) {
+            int passedFiles = 0;
+            for (String score : scores[s]) {
+                if (isFullScore(score)) {
+                    passedFiles++;
+                }
+            }
+            System.out.println(submissions.get(s).getFileName() + ": " + passedFiles + "/" + ioFiles.size());
+        }
+        writeScores(out, submissions, ioFiles, scores);
+
+        System.out.printf(Locale.ROOT, "Finished %d runs in %.2f s. Scores written to '%s'%n",
+                submissions.size() * ioFiles.size(), (System.nanoTime() - start) / 1e9, out);
+        //Runs exceeding the time limit may still be alive
+        System.exit(0);
+    }
+
+    /**
+     * Grades every shard of the io-files in a worker process of its own and collects their scores.
+     * Each worker gets the options of this grader, its share of the threads and the list of its io-files.
+     */
+    private static String[][] gradeInProcesses(String[] args, int threadsPerWorker, List<Path> submissions,
+                                               List<Path> ioFiles, List<List<Path>> shards)
+            throws IOException, InterruptedException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<Path> workerFiles = new ArrayList<>(shards.size());
+        List<Process> workers = new ArrayList<>(shards.size());
+        try {
+            for (List<Path> shard : shards) {
+                Path workerFile = Files.createTempFile("grader-shard", ".txt");
+                workerFile.toFile().deleteOnExit();
+                scoresFileOf(workerFile).toFile().deleteOnExit();
+                List<String> lines = new ArrayList<>(shard.size());
+                for (Path ioFile : shard) {
+                    lines.add(ioFile.toString());
+                }
+                Files.write(workerFile, lines, StandardCharsets.UTF_8);
+
+                List<String> command = new ArrayList<>(Arrays.asList(java, "-cp",
+                        System.getProperty("java.class.path"), BatchGrader.class.getName()));
+                for (String arg : args) {
+                    if (!arg.startsWith("--processes=") && !arg.startsWith("--threads=")) {
+                        command.add(arg);
+                    }
+                }
+                command.add("--threads=" + threadsPerWorker);
+                command.add(WORKER_OPTION + workerFile);
+                workerFiles.add(workerFile);
+                workers.add(new ProcessBuilder(command).inheritIO().start());
+            }
+
+            Map<Path, Integer> indices = new HashMap<>();
+            for (int i = 0; i < ioFiles.size(); i++) {
+                indices.put(ioFiles.get(i), i);
+            }
+            String[][] scores = new String[submissions.size()][ioFiles.size()];
+            for (int w = 0; w < workers.size(); w++) {
+                if (workers.get(w).waitFor() != 0) {
+                    throw new IOException("Worker process " + (w + 1) + " failed");
+                }
+                String[][] shardScores;
+                try (ObjectInputStream in = new ObjectInputStream(
+                        Files.newInputStream(scoresFileOf(workerFiles.get(w))))) {
+                    shardScores = (String[][]) in.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException(e);
+                }
+                List<Path> shard = shards.get(w);
+                for (int s = 0; s < submissions.size(); s++) {
+                    for (int f = 0; f < shard.size(); f++) {
+                        scores[s][indices.get(shard.get(f))] = shardScores[s][f];
+                    }
+                }
+            }
+            return scores;
+        } finally {
+            //Stops the other workers once one of them failed
+            for (Process worker : workers) {
+                worker.destroyForcibly();
+            }
+        }
+    }
+
+    private static Path scoresFileOf(Path workerFile) {
+        return Paths.get(workerFile + ".scores");
+    }
+
+    private static boolean isFullScore(String score) {
+        String[] parts = score.split("/");
+        return parts.length == 2 && parts[0].equals(parts[1]);
+    }
+
+    private static String value(String option) {
+        return option.substring(option.indexOf('=') + 1);
+    }
+
+    /**
+     * Grades all submissions with all io-files
+     *
+     * @param submissions are the class directories or jars of the submissions
+     * @param ioFiles     are the io-files
+     * @return the scores indexed by submission and io-file
+     * @throws IOException          if an io-file can't be read
+     * @throws InterruptedException if the grader is interrupted while waiting for the runs
+     */
+    public String[][] grade(List<Path> submissions, List<Path> ioFiles) throws IOException, InterruptedException {
+        List<List<TestPair>> testPairs = new ArrayList<>(ioFiles.size());
+        List<String[]> commandLineArgs = new ArrayList<>(ioFiles.size());
+        for (Path ioFile : ioFiles) {
+            testPairs.add(Collections.unmodifiableList(IOFileParser.parse(ioFile)));
+            commandLineArgs.add(IOFileParser.readCommandLineArgs(ioFile));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "grader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        //The queue of the executor starts the runs in the order they are submitted: the longest first
+        List<List<Future<String>>> futures = new ArrayList<>(submissions.size());
+        for (int s = 0; s < submissions.size(); s++) {
+            futures.add(new ArrayList<>(Collections.nCopies(ioFiles.size(), null)));
+        }
+        Map<Path, Integer> indices = new HashMap<>();
+        for (int i = 0; i < ioFiles.size(); i++) {
+            indices.put(ioFiles.get(i), i);
+        }
+        for (Path ioFile : history.longestFirst(ioFiles)) {
+            int i = indices.get(ioFile);
+            List<TestPair> pairs = testPairs.get(i);
+            String[] args = commandLineArgs.get(i);
+            for (int s = 0; s < submissions.size(); s++) {
+                Path submission = submissions.get(s);
+                futures.get(s).set(i, executor.submit(() -> gradeRun(submission, ioFile, pairs, args)));
+            }
+        }
+
+        String[][] scores = new String[submissions.size()][ioFiles.size()];
+        for (int s = 0; s < submissions.size(); s++) {
+            for (int f = 0; f < ioFiles.size(); f++) {
+                try {
+                    scores[s][f] = futures.get(s).get(f).get();
+                } catch (ExecutionException e) {
+                    scores[s][f] = "error: " + e.getCause();
+                }
+            }
+        }
+
+        executor.shutdown();
+        return scores;
+    }
+
+    /**
+     * Runs a submission with the pairs of a single io-file
+     *
+     * @return the score in the form 'passed/total' or 'timeout'
+     */
+    private String gradeRun(Path submission, Path ioFile, List<TestPair> testPairs, String[] args) throws Exception {
+        long start = System.nanoTime();
+        GradingStats.INSTANCE.ioFileStarted(ioFile.toString());
+        long statsTestId = GradingStats.INSTANCE.testStarted(submission.getFileName() + " @ " + ioFile);
+        boolean passed = false;
+        try (SubmissionClassLoader loader = new SubmissionClassLoader(new URL[]{toURL(submission)},
+                BatchGrader.class.getClassLoader())) {
+            IsolatedProgram program = new IsolatedProgram(loader, mainClassOf(submission));
+
+            IsolatedProgram.Result result = program.run(IsolatedProgram.inputsOf(testPairs), args, timeoutMillis);
+            history.record(ioFile, (System.nanoTime() - start) / 1e6);
+            if (result == null) {
+                return TIMEOUT;
+            }
+
+            int passedPairs = result.countPassed(testPairs);
+            passed = passedPairs == testPairs.size();
+            return passedPairs + "/" + testPairs.size();
+        } finally {
+            GradingStats.INSTANCE.testFinished(statsTestId, passed);
+        }
+    }
+
+    private String mainClassOf(Path submission) throws IOException {
+        if (mainClassOverride != null) {
+            return mainClassOverride;
+        }
+
+        if (Files.isRegularFile(submission)) {
+            try (JarFile jar = new JarFile(submission.toFile())) {
+                Manifest manifest = jar.getManifest();
+                if (manifest != null && manifest.getMainAttributes().getValue("Main-Class") != null) {
+                    return manifest.getMainAttributes().getValue("Main-Class");
+                }
+            }
+        }
+
+        return DEFAULT_MAIN_CLASS;
+    }
+
+    private static URL toURL(Path path) throws MalformedURLException {
+        return path.toUri().toURL();
+    }
+
+    /**
+     * Lists all class directories and jars in a directory
+     *
+     * @param directory is the directory containing the submissions
+     * @return the submissions sorted by name
+     * @throws IOException if the directory can't be listed
+     */
+    public static List<Path> listSubmissions(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> Files.isDirectory(path) || path.toString().endsWith(".jar"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Lists all io-files below a directory
+     *
+     * @param directory is the directory containing the io-files
+     * @return the io-files sorted by path
+     * @throws IOException if the directory can't be walked
+     */
+    public static List<Path> listIOFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(path -> Files.isRegularFile(path) && IOFileParser.isIOFile(path))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static void writeScores(Path out, List<Path> submissions, List<Path> ioFiles, String[][] scores)
+            throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(out, StandardCharsets.UTF_8))) {
+            StringBuilder header = new StringBuilder("submission");
+            for (Path ioFile : ioFiles) {
+                header.append(',').append(csv(ioFile.toString()));
+            }
+            writer.println(header);
+
+            for (int s = 0; s < submissions.size(); s++) {
+                StringBuilder row = new StringBuilder(csv(submissions.get(s).getFileName().toString()));
+                for (String score : scores[s]) {
+                    row.append(',').append(csv(score));
+                }
+                writer.println(row);
+            }
+        }
+    }
+
+    private static String csv(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
@@ -0,0 +1,61 @@
+package utility;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import program_examples.FancyProgram;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BatchGraderTest {
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("batch-grader");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        IOFileFixtures.delete(directory);
+    }
+
+    @Test
+    void gradesEveryIOFile() throws Exception {
+        Path passing = IOFileFixtures.write(directory.resolve("passing.io"), "> msg", "WABBALUBBADUPDUP!",
+                "> meaning of life", "42", "> error", "Error, ...");
+        Path failing = IOFileFixtures.write(directory.resolve("failing.io"), "> pi", "3.2",
+                "> msg", "WABBALUBBADUPDUP!");
+        Path submission = Paths.get(FancyProgram.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+
+        BatchGrader grader = new BatchGrader(FancyProgram.class.getName(), 2, 10000,
+                new TimingHistory(directory.resolve("history.properties")));
+        String[][] scores = grader.grade(Collections.singletonList(submission), Arrays.asList(passing, failing));
+
+        assertArrayEquals(new String[]{"3/3", "1/2"}, scores[0]);
+    }
+
+    @Test
+    void listsPlainAndCompressedIOFiles() throws IOException {
+        Files.createDirectories(directory.resolve("nested"));
+        Path plain = IOFileFixtures.write(directory.resolve("a.io"), "> pi", "3.14...");
+        Path nested = IOFileFixtures.write(directory.resolve("nested/b.io"), "> pi", "3.14...");
+        Path compressed = directory.resolve("c.io.gz");
+        Files.write(compressed, IOFileFixtures.gzip("> pi\n3.14...\n".getBytes(StandardCharsets.UTF_8)));
+        IOFileFixtures.write(directory.resolve("notes.txt"), "> pi", "3.14...");
+
+        List<Path> ioFiles = BatchGrader.listIOFiles(directory);
+
+        assertEquals(Arrays.asList(plain, compressed, nested), ioFiles);
+    }
+}
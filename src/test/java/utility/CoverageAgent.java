@@ -0,0 +1,30 @@
+package utility;
+
+import java.lang.instrument.Instrumentation;
+
+/**
+ * A java agent adding coverage probes to the classes of the tested program while they are loaded.
+ * The agent is optional: the {@link CoverageFuzzer} instruments the program itself if the agent isn't installed.
+ * <p>
+ * Usage: {@code java -javaagent:coverage-agent.jar[=<prefix>,<prefix>...] ...},
+ * where the prefixes (like 'edu/kit/informatik/') restrict the instrumented classes.
+ * The jar needs the manifest 'src/test/resources/coverage-agent.mf'.
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+public final class CoverageAgent {
+    private CoverageAgent() {
+        throw new AssertionError("Utility class constructor.");
+    }
+
+    public static void premain(String agentArgs, Instrumentation instrumentation) {
+        String[] prefixes = agentArgs == null || agentArgs.isEmpty() ? new String[0] : agentArgs.split(",");
+        instrumentation.addTransformer(new CoverageInstrumenter(prefixes));
+        CoverageRuntime.setAgentInstalled();
+    }
+
+    public static void agentmain(String agentArgs, Instrumentation instrumentation) {
+        premain(agentArgs, instrumentation);
+    }
+}
@@ -0,0 +1,463 @@
+package utility;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Generates new io-files by mutating the inputs of existing ones and keeping every input that reaches new code.
+ * The reached code is measured with the edge coverage of {@link CoverageRuntime}.
+ * The saved io-files contain the outputs of the program, so they document its current behaviour
+ * and show up differences when it is changed later on.
+ * <p>
+ * Usage: {@code java utility.CoverageFuzzer [options] <program-classes> <seed-io-file-dir>}
+ * <ul>
+ * <li>{@code --main=<class>} main class of the program (default: edu.kit.informatik.Main)</li>
+ * <li>{@code --workers=<n>} number of concurrent runs (default: number of cores)</li>
+ * <li>{@code --time=<seconds>} how long to generate inputs (default: 60)</li>
+ * <li>{@code --timeout=<millis>} time limit of a single run (default: 1000)</li>
+ * <li>{@code --out=<dir>} the directory of the generated io-files (default: generated)</li>
+ * </ul>
+ * The program-classes are the class directory or jar of the program.
+ * If the {@link CoverageAgent} isn't installed, the classes of the program are instrumented by the fuzzer itself.
+ * Inputs that made the program throw are saved with the prefix 'crash_'.
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+public final class CoverageFuzzer {
+    private static final String QUIT = "quit";
+    private static final String CRASH_PREFIX = "crash_";
+    private static final int MAX_INPUTS = 200;
+    private static final Pattern NUMBER = Pattern.compile("-?\\d+");
+    private static final int[] INTERESTING_NUMBERS = {-1, 0, 1, 2, Integer.MAX_VALUE, Integer.MIN_VALUE};
+
+    private final URL programClasses;
+    private final String mainClass;
+    private final long timeoutMillis;
+    private final Path outDirectory;
+    private final String[] commandLineArgs;
+    private final List<List<String>> corpus = new ArrayList<>();
+    private final List<String> dictionary;
+    private final byte[] seenBuckets = new byte[CoverageRuntime.MAP_SIZE];
+    private final ConcurrentMap<String, byte[]> instrumentedClasses = new ConcurrentHashMap<>();
+    private final CoverageInstrumenter instrumenter = new CoverageInstrumenter();
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicInteger saved = new AtomicInteger();
+    private final AtomicInteger crashes = new AtomicInteger();
+    private volatile int coveredEdges = 0;
+
+    /**
+     * Creates a fuzzer
+     *
+     * @param programClasses  is the class directory or jar of the program
+     * @param mainClass       is the main class of the program
+     * @param timeoutMillis   is the time limit of a single run
+     * @param outDirectory    is the directory of the generated io-files
+     * @param seeds           are the inputs of the seed io-files
+     * @param commandLineArgs are the command line args of all runs or null
+     */
+    public CoverageFuzzer(URL programClasses, String mainClass, long timeoutMillis, Path outDirectory,
+                          List<List<String>> seeds, String[] commandLineArgs) {
+        this.programClasses = programClasses;
+        this.mainClass = mainClass;
+        this.timeoutMillis = timeoutMillis;
+        this.outDirectory = outDirectory;
+        this.commandLineArgs = commandLineArgs;
+
+        Set<String> words = new LinkedHashSet<>();
+        for (List<String> seed : seeds) {
+            for (String input : seed) {
+                words.add(input);
+                words.addAll(Arrays.asList(input.split("[ ;,]")));
+            }
+        }
+        words.remove(QUIT);
+        words.remove("");
+        dictionary = new ArrayList<>(words);
+        corpus.addAll(seeds);
+        if (corpus.isEmpty()) {
+            corpus.add(new ArrayList<>());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String mainClass = BatchGrader.DEFAULT_MAIN_CLASS;
+        int workers = Runtime.getRuntime().availableProcessors();
+        long seconds = 60;
+        long timeoutMillis = 1000;
+        Path out = Paths.get("generated");
+        List<String> positional = new ArrayList<>();
+
+        for (String arg : args) {
+            if (arg.startsWith("--main=")) {
+                mainClass = value(arg);
+            } else if (arg.startsWith("--workers=")) {
+                workers = Integer.parseInt(value(arg));
+            } else if (arg.startsWith("--time=")) {
+                seconds = Long.parseLong(value(arg));
+            } else if (arg.startsWith("--timeout=")) {
+                timeoutMillis = Long.parseLong(value(arg));
+            } else if (arg.startsWith("--out=")) {
+                out = Paths.get(value(arg));
+            } else {
+                positional.add(arg);
+            }
+        }
+
+        if (positional.size() != 2) {
+            System.err.println("Usage: java utility.CoverageFuzzer [--main=<class>] [--workers=<n>] [--time=<s>]"
+                    + " [--timeout=<ms>] [--out=<dir>] <program-classes> <seed-io-file-dir>");
+            System.exit(2);
+        }
+
+        List<List<String>> seeds = new ArrayList<>();
+        String[] commandLineArgs = null;
+        for (Path ioFile : BatchGrader.listIOFiles(Paths.get(positional.get(1)))) {
+            List<String> inputs = IsolatedProgram.inputsOf(IOFileParser.parse(ioFile));
+            inputs.remove(inputs.size() - 1);
+            seeds.add(inputs);
+            if (commandLineArgs == null) {
+                commandLineArgs = IOFileParser.readCommandLineArgs(ioFile);
+            }
+        }
+
+        Files.createDirectories(out);
+        CoverageFuzzer fuzzer = new CoverageFuzzer(Paths.get(positional.get(0)).toUri().toURL(), mainClass,
+                timeoutMillis, out, seeds, commandLineArgs);
+        fuzzer.fuzz(workers, TimeUnit.SECONDS.toMillis(seconds));
+        //Runs exceeding the time limit may still be alive
+        System.exit(0);
+    }
+
+    private static String value(String option) {
+        return option.substring(option.indexOf('=') + 1);
+    }
+
+    /**
+     * Runs the seeds and then mutated inputs until the time is up
+     *
+     * @param workers        is the number of concurrent runs
+     * @param durationMillis is how long to generate inputs
+     * @throws InterruptedException if the calling thread is interrupted
+     */
+    public void fuzz(int workers, long durationMillis) throws InterruptedException {
+        System.out.println("Fuzzing " + mainClass + " with " + corpus.size() + " seeds on " + workers + " workers"
+                + (CoverageRuntime.isAgentInstalled() ? " (agent installed)" : ""));
+        for (List<String> seed : new ArrayList<>(corpus)) {
+            execute(seed, false);
+        }
+
+        long end = System.currentTimeMillis() + durationMillis;
+        List<Thread> threads = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            Random random = new Random(System.nanoTime() + i);
+            Thread worker = new Thread(() -> {
+                while (System.currentTimeMillis() < end && !Thread.currentThread().isInterrupted()) {
+                    execute(mutate(random), true);
+                }
+            }, "fuzzer " + i);
+            worker.setDaemon(true);
+            threads.add(worker);
+            worker.start();
+        }
+
+        while (System.currentTimeMillis() < end) {
+            Thread.sleep(Math.min(5000, Math.max(1, end - System.currentTimeMillis())));
+            printStatus();
+        }
+        for (Thread worker : threads) {
+            worker.join(timeoutMillis * 2);
+        }
+        printStatus();
+    }
+
+    private void printStatus() {
+        System.out.printf("%d runs, %d edges, %d corpus entries, %d io-files saved (%d crashes)%n", runs.get(),
+                coveredEdges, corpus.size(), saved.get(), crashes.get());
+    }
+
+    /**
+     * Runs a fresh copy of the program with the given inputs and keeps them if they reached new code
+     *
+     * @param save is false for the seeds, which are already part of the corpus
+     */
+    private void execute(List<String> inputs, boolean save) {
+        List<String> allInputs = new ArrayList<>(inputs);
+        allInputs.add(QUIT);
+
+        IsolatedProgram.Result result;
+        CoverageRuntime.Trace trace = CoverageRuntime.startTrace();
+        try {
+            IsolatedProgram program = new IsolatedProgram(newLoader(), mainClass);
+            result = program.run(allInputs, commandLineArgs, timeoutMillis);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw new IllegalStateException("Unable to load " + mainClass, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            CoverageRuntime.stopTrace();
+        }
+        runs.incrementAndGet();
+
+        if (result == null || !addCoverage(trace.getCounts()) || !save) {
+            return;
+        }
+        synchronized (corpus) {
+            corpus.add(inputs);
+        }
+        save(inputs, result);
+    }
+
+    private ClassLoader newLoader() {
+        ClassLoader parent = CoverageFuzzer.class.getClassLoader();
+        if (CoverageRuntime.isAgentInstalled()) {
+            return new SubmissionClassLoader(new URL[]{programClasses}, parent);
+        }
+        return new InstrumentingClassLoader(new URL[]{programClasses}, parent, instrumenter, instrumentedClasses);
+    }
+
+    /**
+     * Merges the bucketized hit counts of a run into the seen coverage
+     *
+     * @return true if the run hit a new edge or an edge a new number of times
+     */
+    private boolean addCoverage(byte[] counts) {
+        boolean isNew = false;
+        synchronized (seenBuckets) {
+            for (int edge = 0; edge < counts.length; edge++) {
+                if (counts[edge] == 0) {
+                    continue;
+                }
+                byte bucket = bucket(counts[edge] & 0xff);
+                if ((seenBuckets[edge] & bucket) != bucket) {
+                    if (seenBuckets[edge] == 0) {
+                        coveredEdges++;
+                    }
+                    seenBuckets[edge] |= bucket;
+                    isNew = true;
+                }
+            }
+        }
+        return isNew;
+    }
+
+    /**
+     * Puts a hit count in one of the buckets 1, 2, 3, 4-7, 8-15, 16-31, 32-127 and 128-255
+     */
+    private static byte bucket(int count) {
+        if (count <= 3) {
+            return (byte) (1 << (count - 1));
+        }
+        if (count < 8) {
+            return 1 << 3;
+        }
+        if (count < 16) {
+            return 1 << 4;
+        }
+        if (count < 32) {
+            return 1 << 5;
+        }
+        return (byte) (count < 128 ? 1 << 6 : 1 << 7);
+    }
+
+    private List<String> mutate(Random random) {
+        List<String> inputs;
+        List<String> other;
+        synchronized (corpus) {
+            inputs = new ArrayList<>(corpus.get(random.nextInt(corpus.size())));
+            other = corpus.get(random.nextInt(corpus.size()));
+        }
+
+        int mutations = 1 + random.nextInt(4);
+        for (int i = 0; i < mutations; i++) {
+            int position = inputs.isEmpty() ? 0 : random.nextInt(inputs.size());
+            switch (inputs.isEmpty() ? 0 : random.nextInt(7)) {
+                case 0:
+                    if (!dictionary.isEmpty()) {
+                        inputs.add(random.nextInt(inputs.size() + 1), dictionary.get(random.nextInt(dictionary.size())));
+                    }
+                    break;
+                case 1:
+                    if (!dictionary.isEmpty()) {
+                        inputs.set(position, dictionary.get(random.nextInt(dictionary.size())));
+                    }
+                    break;
+                case 2:
+                    inputs.remove(position);
+                    break;
+                case 3:
+                    inputs.add(position, inputs.get(position));
+                    break;
+                case 4:
+                    inputs.set(position, inputs.set(random.nextInt(inputs.size()), inputs.get(position)));
+                    break;
+                case 5:
+                    inputs.set(position, tweakNumber(inputs.get(position), random));
+                    break;
+                default:
+                    if (!other.isEmpty()) {
+                        int from = random.nextInt(other.size());
+                        inputs.addAll(position, other.subList(from, Math.min(other.size(), from + 1
+                                + random.nextInt(other.size() - from))));
+                    }
+                    break;
+            }
+        }
+
+        return inputs.size() > MAX_INPUTS ? new ArrayList<>(inputs.subList(0, MAX_INPUTS)) : inputs;
+    }
+
+    private static String tweakNumber(String input, Random random) {
+        Matcher matcher = NUMBER.matcher(input);
+        List<int[]> numbers = new ArrayList<>();
+        while (matcher.find()) {
+            numbers.add(new int[]{matcher.start(), matcher.end()});
+        }
+        if (numbers.isEmpty()) {
+            return input;
+        }
+
+        int[] number = numbers.get(random.nextInt(numbers.size()));
+        String replacement;
+        if (random.nextBoolean()) {
+            replacement = String.valueOf(INTERESTING_NUMBERS[random.nextInt(INTERESTING_NUMBERS.length)]);
+        } else {
+            long value = Long.parseLong(input.substring(number[0], number[1]));
+            replacement = String.valueOf(value + random.nextInt(33) - 16);
+        }
+        return input.substring(0, number[0]) + replacement + input.substring(number[1]);
+    }
+
+    /**
+     * Saves the inputs and the outputs of a run as io-file
+     */
+    private void save(List<String> inputs, IsolatedProgram.Result result) {
+        List<String> outputs = result.getOutputs();
+        int pairs = Math.min(inputs.size(), outputs.size());
+        for (int i = 0; i < pairs; i++) {
+            if (!isWritable(inputs.get(i), outputs.get(i))) {
+                return;
+            }
+        }
+
+        boolean crashed = result.getFailure() != null;
+        String name = (crashed ? CRASH_PREFIX : "") + String.format("id_%06d.io", saved.incrementAndGet());
+        if (crashed) {
+            crashes.incrementAndGet();
+        }
+
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(outDirectory.resolve(name),
+                StandardCharsets.UTF_8))) {
+            if (crashed) {
+                writer.println("Generated input, the program threw " + result.getFailure());
+            }
+            if (commandLineArgs != null) {
+                writer.println(TestBase.IO_FILE_COMMAND_LINE_ARGS_PREFIX + String.join(" ", commandLineArgs));
+            }
+            for (int i = 0; i < pairs; i++) {
+                writer.println(IOFileParser.INPUT_LINE_PREFIX + inputs.get(i));
+                if (outputs.get(i) != null) {
+                    writer.println(outputs.get(i));
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Unable to save '" + name + "': " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks whether a pair is read back from an io-file as it was written
+     */
+    private static boolean isWritable(String input, String output) {
+        if (input.contains(IOFileParser.INPUT_LINE_PREFIX) || input.contains("\n")) {
+            return false;
+        }
+        if (output == null) {
+            return true;
+        }
+        for (String line : output.split("\n", -1)) {
+            if (line.startsWith(IOFileParser.INPUT_LINE_PREFIX) || line.startsWith("#")
+                    || line.contains(IOFileParser.STARTS_WITH_POSTFIX)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Loads the classes of a program with coverage probes.
+     * The instrumented class files are shared by all loaders of a fuzzer.
+     */
+    private static final class InstrumentingClassLoader extends SubmissionClassLoader {
+        private final CoverageInstrumenter instrumenter;
+        private final ConcurrentMap<String, byte[]> instrumentedClasses;
+
+        static {
+            registerAsParallelCapable();
+        }
+
+        InstrumentingClassLoader(URL[] urls, ClassLoader parent, CoverageInstrumenter instrumenter,
+                                 ConcurrentMap<String, byte[]> instrumentedClasses) {
+            super(urls, parent);
+            this.instrumenter = instrumenter;
+            this.instrumentedClasses = instrumentedClasses;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = instrumentedClasses.get(name);
+            if (bytes == null) {
+                URL resource = findResource(name.replace('.', '/') + ".class");
+                if (resource == null) {
+                    throw new ClassNotFoundException(name);
+                }
+                try (InputStream in = resource.openStream()) {
+                    bytes = readAll(in);
+                } catch (IOException e) {
+                    throw new ClassNotFoundException(name, e);
+                }
+                String internalName = name.replace('.', '/');
+                if (instrumenter.isInstrumented(internalName)) {
+                    try {
+                        bytes = instrumenter.instrument(internalName, bytes);
+                    } catch (IllegalArgumentException e) {
+                        //The JVM reports the broken class when defining the original
+                    }
+                }
+                instrumentedClasses.putIfAbsent(name, bytes);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        return bytes.toByteArray();
+    }
+}
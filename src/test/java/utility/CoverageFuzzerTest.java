@@ -0,0 +1,87 @@
+package utility;
+
+import edu.kit.informatik.Terminal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoverageFuzzerTest {
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("coverage-fuzzer");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        IOFileFixtures.delete(directory);
+    }
+
+    @Test
+    void combinesSeedsToReachNewCode() throws Exception {
+        Path classes = Files.createDirectory(directory.resolve("classes"));
+        Path out = Files.createDirectory(directory.resolve("out"));
+        Path source = IOFileFixtures.write(Files.createDirectory(directory.resolve("sample")).resolve("Game.java"),
+                "package sample;",
+                "",
+                "import edu.kit.informatik.Terminal;",
+                "",
+                "public class Game {",
+                "    public static void main(String[] args) {",
+                "        boolean open = false;",
+                "        while (true) {",
+                "            String line = Terminal.readLine();",
+                "            if (line.equals(\"quit\")) {",
+                "                return;",
+                "            } else if (line.equals(\"open\")) {",
+                "                open = true;",
+                "                Terminal.printLine(\"OK\");",
+                "            } else if (line.equals(\"win\") && open) {",
+                "                Terminal.printLine(\"You won\");",
+                "            } else {",
+                "                Terminal.printLine(\"Error, closed\");",
+                "            }",
+                "        }",
+                "    }",
+                "}");
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, null, null, "-d", classes.toString(),
+                "-cp", Paths.get(Terminal.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString(),
+                source.toString()));
+
+        List<List<String>> seeds = Arrays.asList(Collections.singletonList("open"), Collections.singletonList("win"));
+        new CoverageFuzzer(classes.toUri().toURL(), "sample.Game", 1000, out, seeds, null).fuzz(1, 3000);
+
+        List<Path> ioFiles;
+        try (Stream<Path> files = Files.list(out)) {
+            ioFiles = files.sorted().collect(Collectors.toList());
+        }
+        assertFalse(ioFiles.isEmpty());
+        boolean won = false;
+        for (Path ioFile : ioFiles) {
+            assertTrue(ioFile.getFileName().toString().matches("id_\\d{6}\\.io"), ioFile.toString());
+            List<TestPair> pairs = IOFileParser.parse(ioFile);
+            for (TestPair pair : pairs) {
+                won |= pair.getInput().equals("win") && "You won".equals(pair.getOutput());
+            }
+        }
+        assertTrue(won, "No saved io-file wins");
+    }
+}
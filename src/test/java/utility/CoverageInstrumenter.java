@@ -0,0 +1,795 @@
+package utility;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.instrument.ClassFileTransformer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adds coverage probes to class files.
+ * A probe calling {@link CoverageRuntime#hit(int)} is inserted at the start of every basic block,
+ * i.e. at the method start, at every jump target, after every conditional jump and at every exception handler.
+ * <p>
+ * A probe is 8 bytes long, so the alignment of switch instructions stays the same.
+ * All jump offsets, exception tables, stack map frames and debug tables are moved accordingly.
+ * Methods that can't be instrumented (too long, old jsr/ret code or unknown code attributes) are left as they are.
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+public class CoverageInstrumenter implements ClassFileTransformer {
+    static final int PROBE_LENGTH = 8;
+    private static final String RUNTIME_CLASS = "utility/CoverageRuntime";
+    private static final String[] EXCLUDED_PREFIXES = {"java/", "javax/", "jdk/", "sun/", "com/sun/", "utility/",
+            "org/junit/", "org/opentest4j/", "org/apiguardian/", "edu/kit/informatik/Terminal"};
+
+    private static final int SIPUSH = 0x11;
+    private static final int IFEQ = 0x99;
+    private static final int IF_ACMPNE = 0xa6;
+    private static final int GOTO = 0xa7;
+    private static final int JSR = 0xa8;
+    private static final int RET = 0xa9;
+    private static final int TABLESWITCH = 0xaa;
+    private static final int LOOKUPSWITCH = 0xab;
+    private static final int INVOKESTATIC = 0xb8;
+    private static final int WIDE = 0xc4;
+    private static final int IFNULL = 0xc6;
+    private static final int IFNONNULL = 0xc7;
+    private static final int GOTO_W = 0xc8;
+    private static final int JSR_W = 0xc9;
+    private static final int IINC = 0x84;
+
+    private static final int UNINITIALIZED = 8;
+    private static final int OBJECT = 7;
+
+    /**
+     * Length of each opcode, 0 for opcodes with a variable length and -1 for unsupported ones
+     */
+    private static final int[] OPCODE_LENGTHS = new int[256];
+
+    static {
+        java.util.Arrays.fill(OPCODE_LENGTHS, -1);
+        java.util.Arrays.fill(OPCODE_LENGTHS, 0x00, 0x10, 1);
+        OPCODE_LENGTHS[0x10] = 2;
+        OPCODE_LENGTHS[0x11] = 3;
+        OPCODE_LENGTHS[0x12] = 2;
+        OPCODE_LENGTHS[0x13] = 3;
+        OPCODE_LENGTHS[0x14] = 3;
+        java.util.Arrays.fill(OPCODE_LENGTHS, 0x15, 0x1a, 2);
+        java.util.Arrays.fill(OPCODE_LENGTHS, 0x1a, 0x36, 1);
+        java.util.Arrays.fill(OPCODE_LENGTHS, 0x36, 0x3b, 2);
+        java.util.Arrays.fill(OPCODE_LENGTHS, 0x3b, 0x84, 1);
+        OPCODE_LENGTHS[IINC] = 3;
+        java.util.Arrays.fill(OPCODE_LENGTHS, 0x85, 0x99, 1);
+        java.util.Arrays.fill(OPCODE_LENGTHS, IFEQ, JSR, 3);
+        OPCODE_LENGTHS[TABLESWITCH] = 0;
+        OPCODE_LENGTHS[LOOKUPSWITCH] = 0;
+        java.util.Arrays.fill(OPCODE_LENGTHS, 0xac, 0xb2, 1);
+        java.util.Arrays.fill(OPCODE_LENGTHS, 0xb2, 0xb9, 3);
+        OPCODE_LENGTHS[0xb9] = 5;
+        OPCODE_LENGTHS[0xba] = 5;
+        OPCODE_LENGTHS[0xbb] = 3;
+        OPCODE_LENGTHS[0xbc] = 2;
+        OPCODE_LENGTHS[0xbd] = 3;
+        OPCODE_LENGTHS[0xbe] = 1;
+        OPCODE_LENGTHS[0xbf] = 1;
+        OPCODE_LENGTHS[0xc0] = 3;
+        OPCODE_LENGTHS[0xc1] = 3;
+        OPCODE_LENGTHS[0xc2] = 1;
+        OPCODE_LENGTHS[0xc3] = 1;
+        OPCODE_LENGTHS[WIDE] = 0;
+        OPCODE_LENGTHS[0xc5] = 4;
+        OPCODE_LENGTHS[IFNULL] = 3;
+        OPCODE_LENGTHS[IFNONNULL] = 3;
+        OPCODE_LENGTHS[GOTO_W] = 5;
+    }
+
+    private final String[] includedPrefixes;
+
+    /**
+     * Creates an instrumenter
+     *
+     * @param includedPrefixes are the internal name prefixes (like 'edu/kit/informatik/') of the instrumented classes.
+     *                         Without prefixes every class that isn't part of the JDK, JUnit or this framework is.
+     */
+    public CoverageInstrumenter(String... includedPrefixes) {
+        this.includedPrefixes = includedPrefixes;
+    }
+
+    /**
+     * Checks whether a class is instrumented
+     *
+     * @param internalName is the internal name of the class, like 'edu/kit/informatik/Main'
+     * @return true if the class gets probes
+     */
+    public boolean isInstrumented(String internalName) {
+        for (String prefix : EXCLUDED_PREFIXES) {
+            if (internalName.startsWith(prefix)) {
+                return false;
+            }
+        }
+        if (includedPrefixes.length == 0) {
+            return true;
+        }
+        for (String prefix : includedPrefixes) {
+            if (internalName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public byte[] transform(ClassLoader loader, String className, Class<?> classBeingRedefined,
+                            ProtectionDomain protectionDomain, byte[] classFileBuffer) {
+        if (className == null || classBeingRedefined != null || !isInstrumented(className)) {
+            return null;
+        }
+        try {
+            return instrument(className, classFileBuffer);
+        } catch (RuntimeException e) {
+            //A broken class stays broken, the JVM reports it when defining the original
+            return null;
+        }
+    }
+
+    /**
+     * Adds probes to all methods of a class
+     *
+     * @param className is the name of the class, used to derive the probe ids
+     * @param classFile is the class file
+     * @return the instrumented class file
+     * @throws IllegalArgumentException if the class file is malformed
+     */
+    public byte[] instrument(String className, byte[] classFile) {
+        try {
+            return new ClassRewriter(className, ByteBuffer.wrap(classFile)).rewrite();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (java.nio.BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed class file of " + className, e);
+        }
+    }
+
+    /**
+     * Rewrites a single class file
+     */
+    private static final class ClassRewriter {
+        private final String className;
+        private final ByteBuffer in;
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private String[] utf8;
+        private int hitMethodRef;
+
+        ClassRewriter(String className, ByteBuffer in) {
+            this.className = className;
+            this.in = in;
+        }
+
+        byte[] rewrite() throws IOException {
+            int magic = in.getInt();
+            if (magic != 0xCAFEBABE) {
+                throw new IllegalArgumentException("Not a class file: " + className);
+            }
+            out.writeInt(magic);
+            out.writeInt(in.getInt()); //minor and major version
+
+            rewriteConstantPool();
+            copy(6); //access flags, this class, super class
+            int interfaces = u2();
+            out.writeShort(interfaces);
+            copy(interfaces * 2);
+
+            copyMembers(false); //fields
+            copyMembers(true); //methods
+
+            int attributes = u2();
+            out.writeShort(attributes);
+            for (int i = 0; i < attributes; i++) {
+                copy(2);
+                int length = in.getInt();
+                out.writeInt(length);
+                copy(length);
+            }
+
+            out.flush();
+            return bytes.toByteArray();
+        }
+
+        /**
+         * Copies the constant pool and appends the reference to {@link CoverageRuntime#hit(int)}
+         */
+        private void rewriteConstantPool() throws IOException {
+            int count = u2();
+            if (count + 6 > 0xffff) {
+                throw new IllegalArgumentException("Constant pool of " + className + " is full");
+            }
+            out.writeShort(count + 6);
+            utf8 = new String[count];
+
+            for (int i = 1; i < count; i++) {
+                int tag = in.get() & 0xff;
+                out.writeByte(tag);
+                switch (tag) {
+                    case 1: //Utf8
+                        int length = u2();
+                        byte[] text = new byte[length];
+                        in.get(text);
+                        utf8[i] = new String(text, StandardCharsets.UTF_8);
+                        out.writeShort(length);
+                        out.write(text);
+                        break;
+                    case 7: //Class
+                    case 8: //String
+                    case 16: //MethodType
+                    case 19: //Module
+                    case 20: //Package
+                        copy(2);
+                        break;
+                    case 15: //MethodHandle
+                        copy(3);
+                        break;
+                    case 3: //Integer
+                    case 4: //Float
+                    case 9: //Fieldref
+                    case 10: //Methodref
+                    case 11: //InterfaceMethodref
+                    case 12: //NameAndType
+                    case 17: //Dynamic
+                    case 18: //InvokeDynamic
+                        copy(4);
+                        break;
+                    case 5: //Long
+                    case 6: //Double
+                        copy(8);
+                        i++;
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown constant pool tag " + tag + " in " + className);
+                }
+            }
+
+            out.writeByte(1);
+            out.writeUTF(RUNTIME_CLASS);
+            out.writeByte(7);
+            out.writeShort(count);
+            out.writeByte(1);
+            out.writeUTF("hit");
+            out.writeByte(1);
+            out.writeUTF("(I)V");
+            out.writeByte(12);
+            out.writeShort(count + 2);
+            out.writeShort(count + 3);
+            out.writeByte(10);
+            out.writeShort(count + 1);
+            out.writeShort(count + 4);
+            hitMethodRef = count + 5;
+        }
+
+        private void copyMembers(boolean areMethods) throws IOException {
+            int members = u2();
+            out.writeShort(members);
+            for (int i = 0; i < members; i++) {
+                copy(2); //access flags
+                int name = u2();
+                int descriptor = u2();
+                out.writeShort(name);
+                out.writeShort(descriptor);
+
+                int attributes = u2();
+                out.writeShort(attributes);
+                for (int a = 0; a < attributes; a++) {
+                    int attributeName = u2();
+                    int length = in.getInt();
+                    byte[] attribute = new byte[length];
+                    in.get(attribute);
+
+                    byte[] instrumented = null;
+                    if (areMethods && "Code".equals(utf8[attributeName])) {
+                        String method = className + "." + utf8[name] + utf8[descriptor];
+                        instrumented = new CodeRewriter(method, attribute, utf8, hitMethodRef).rewrite();
+                    }
+                    if (instrumented == null) {
+                        instrumented = attribute;
+                    }
+                    out.writeShort(attributeName);
+                    out.writeInt(instrumented.length);
+                    out.write(instrumented);
+                }
+            }
+        }
+
+        private int u2() {
+            return in.getShort() & 0xffff;
+        }
+
+        private void copy(int length) throws IOException {
+            byte[] buffer = new byte[length];
+            in.get(buffer);
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * Rewrites the Code attribute of a single method
+     */
+    private static final class CodeRewriter {
+        private final String method;
+        private final ByteBuffer in;
+        private final String[] utf8;
+        private final int hitMethodRef;
+        private byte[] code;
+        private boolean[] isInstruction;
+        private boolean[] isBlockStart;
+        private int[] newPositions;
+
+        CodeRewriter(String method, byte[] attribute, String[] utf8, int hitMethodRef) {
+            this.method = method;
+            this.in = ByteBuffer.wrap(attribute);
+            this.utf8 = utf8;
+            this.hitMethodRef = hitMethodRef;
+        }
+
+        /**
+         * @return the new Code attribute or null if the method can't be instrumented
+         */
+        byte[] rewrite() throws IOException {
+            int maxStack = u2();
+            int maxLocals = u2();
+            code = new byte[in.getInt()];
+            in.get(code);
+
+            int[][] exceptions = new int[u2()][4];
+            for (int[] exception : exceptions) {
+                for (int i = 0; i < exception.length; i++) {
+                    exception[i] = u2();
+                }
+            }
+
+            int attributeCount = u2();
+            List<Integer> attributeNames = new ArrayList<>(attributeCount);
+            List<byte[]> attributes = new ArrayList<>(attributeCount);
+            for (int i = 0; i < attributeCount; i++) {
+                int name = u2();
+                if (!isKnownCodeAttribute(utf8[name])) {
+                    return null;
+                }
+                byte[] attribute = new byte[in.getInt()];
+                in.get(attribute);
+                attributeNames.add(name);
+                attributes.add(attribute);
+            }
+
+            if (!findBlockStarts(exceptions)) {
+                return null;
+            }
+            for (int i = 0; i < attributeCount; i++) {
+                if ("StackMapTable".equals(utf8[attributeNames.get(i)])) {
+                    if (!markFrames(attributes.get(i))) {
+                        return null;
+                    }
+                }
+            }
+
+            computeNewPositions();
+            int newCodeLength = newPositions[code.length];
+            if (newCodeLength > 0xffff) {
+                return null;
+            }
+
+            ByteArrayOutputStream newCodeBytes = new ByteArrayOutputStream(newCodeLength);
+            DataOutputStream newCode = new DataOutputStream(newCodeBytes);
+            if (!writeCode(newCode)) {
+                return null;
+            }
+
+            ByteArrayOutputStream result = new ByteArrayOutputStream(newCodeLength + 64);
+            DataOutputStream out = new DataOutputStream(result);
+            out.writeShort(Math.min(maxStack + 1, 0xffff));
+            out.writeShort(maxLocals);
+            out.writeInt(newCodeLength);
+            newCodeBytes.writeTo(out);
+
+            out.writeShort(exceptions.length);
+            for (int[] exception : exceptions) {
+                out.writeShort(slot(exception[0]));
+                out.writeShort(slot(exception[1]));
+                out.writeShort(slot(exception[2]));
+                out.writeShort(exception[3]);
+            }
+
+            out.writeShort(attributeCount);
+            for (int i = 0; i < attributeCount; i++) {
+                String name = utf8[attributeNames.get(i)];
+                byte[] attribute = attributes.get(i);
+                if ("StackMapTable".equals(name)) {
+                    attribute = rewriteFrames(attribute);
+                    if (attribute == null) {
+                        return null;
+                    }
+                } else if ("LineNumberTable".equals(name)) {
+                    attribute = rewriteLineNumbers(attribute);
+                } else {
+                    attribute = rewriteLocalVariables(attribute);
+                }
+                out.writeShort(attributeNames.get(i));
+                out.writeInt(attribute.length);
+                out.write(attribute);
+            }
+
+            out.flush();
+            return result.toByteArray();
+        }
+
+        private static boolean isKnownCodeAttribute(String name) {
+            return "StackMapTable".equals(name) || "LineNumberTable".equals(name)
+                    || "LocalVariableTable".equals(name) || "LocalVariableTypeTable".equals(name);
+        }
+
+        /**
+         * Marks the instructions and the starts of basic blocks
+         *
+         * @return false if there is an unsupported instruction
+         */
+        private boolean findBlockStarts(int[][] exceptions) {
+            isInstruction = new boolean[code.length + 1];
+            isBlockStart = new boolean[code.length + 1];
+            isBlockStart[0] = true;
+
+            for (int position = 0; position < code.length; ) {
+                int opcode = code[position] & 0xff;
+                int length = instructionLength(position);
+                if (length <= 0) {
+                    return false;
+                }
+                isInstruction[position] = true;
+
+                if (isBranch(opcode)) {
+                    markBlockStart(position + s2(position + 1));
+                    if (opcode != GOTO) {
+                        markBlockStart(position + length);
+                    }
+                } else if (opcode == GOTO_W) {
+                    markBlockStart(position + s4(position + 1));
+                } else if (opcode == TABLESWITCH || opcode == LOOKUPSWITCH) {
+                    for (int target : switchTargets(position)) {
+                        markBlockStart(target);
+                    }
+                }
+                position += length;
+            }
+
+            for (int[] exception : exceptions) {
+                markBlockStart(exception[2]);
+            }
+
+            for (int position = 0; position < code.length; position++) {
+                if (isBlockStart[position] && !isInstruction[position]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void markBlockStart(int position) {
+            if (position >= 0 && position < code.length) {
+                isBlockStart[position] = true;
+            }
+        }
+
+        /**
+         * Makes every stack map frame a block start, so it can be moved to the start of its probe
+         *
+         * @return false if the frames are malformed
+         */
+        private boolean markFrames(byte[] stackMapTable) {
+            for (int position : framePositions(stackMapTable)) {
+                if (position < 0 || position >= code.length || !isInstruction[position]) {
+                    return false;
+                }
+                isBlockStart[position] = true;
+            }
+            return true;
+        }
+
+        private void computeNewPositions() {
+            newPositions = new int[code.length + 1];
+            int probes = 0;
+            for (int position = 0; position <= code.length; position++) {
+                if (position < code.length && isBlockStart[position]) {
+                    probes++;
+                }
+                newPositions[position] = position + probes * PROBE_LENGTH;
+            }
+        }
+
+        /**
+         * Gets the new position a jump to an old position has to go to: the probe in front of it, if there is one
+         */
+        private int slot(int position) {
+            return position < code.length && isBlockStart[position]
+                    ? newPositions[position] - PROBE_LENGTH : newPositions[position];
+        }
+
+        /**
+         * @return false if a jump doesn't fit in its offset anymore
+         */
+        private boolean writeCode(DataOutputStream out) throws IOException {
+            for (int position = 0; position < code.length; ) {
+                int opcode = code[position] & 0xff;
+                int length = instructionLength(position);
+                int newPosition = newPositions[position];
+
+                if (isBlockStart[position]) {
+                    out.writeByte(SIPUSH);
+                    out.writeShort(probeId(position));
+                    out.writeByte(INVOKESTATIC);
+                    out.writeShort(hitMethodRef);
+                    out.writeByte(0); //nop
+                    out.writeByte(0); //nop
+                }
+
+                if (isBranch(opcode)) {
+                    int offset = slot(position + s2(position + 1)) - newPosition;
+                    if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+                        return false;
+                    }
+                    out.writeByte(opcode);
+                    out.writeShort(offset);
+                } else if (opcode == GOTO_W) {
+                    out.writeByte(opcode);
+                    out.writeInt(slot(position + s4(position + 1)) - newPosition);
+                } else if (opcode == TABLESWITCH || opcode == LOOKUPSWITCH) {
+                    writeSwitch(out, position, newPosition);
+                } else {
+                    out.write(code, position, length);
+                }
+                position += length;
+            }
+            return true;
+        }
+
+        private void writeSwitch(DataOutputStream out, int position, int newPosition) throws IOException {
+            int opcode = code[position] & 0xff;
+            out.writeByte(opcode);
+            //The probes have a length of a multiple of 4, so the padding stays the same
+            int table = position + 1 + padding(position);
+            for (int i = position + 1; i < table; i++) {
+                out.writeByte(0);
+            }
+
+            out.writeInt(slot(position + s4(table)) - newPosition);
+            if (opcode == TABLESWITCH) {
+                int low = s4(table + 4);
+                int high = s4(table + 8);
+                out.writeInt(low);
+                out.writeInt(high);
+                for (int i = 0; i <= high - low; i++) {
+                    out.writeInt(slot(position + s4(table + 12 + 4 * i)) - newPosition);
+                }
+            } else {
+                int pairs = s4(table + 4);
+                out.writeInt(pairs);
+                for (int i = 0; i < pairs; i++) {
+                    out.writeInt(s4(table + 8 + 8 * i));
+                    out.writeInt(slot(position + s4(table + 12 + 8 * i)) - newPosition);
+                }
+            }
+        }
+
+        private int probeId(int position) {
+            return (method + "@" + position).hashCode() & (CoverageRuntime.MAP_SIZE - 1);
+        }
+
+        private List<Integer> framePositions(byte[] stackMapTable) {
+            ByteBuffer frames = ByteBuffer.wrap(stackMapTable);
+            int count = frames.getShort() & 0xffff;
+            List<Integer> positions = new ArrayList<>(count);
+            int position = -1;
+            for (int i = 0; i < count; i++) {
+                int type = frames.get() & 0xff;
+                int delta;
+                if (type < 64) {
+                    delta = type;
+                } else if (type < 128) {
+                    delta = type - 64;
+                    skipVerificationType(frames);
+                } else if (type < 247) {
+                    throw new IllegalArgumentException("Reserved frame type " + type + " in " + method);
+                } else {
+                    delta = frames.getShort() & 0xffff;
+                    if (type == 247) {
+                        skipVerificationType(frames);
+                    } else if (type >= 252 && type <= 254) {
+                        for (int local = 0; local < type - 251; local++) {
+                            skipVerificationType(frames);
+                        }
+                    } else if (type == 255) {
+                        for (int part = 0; part < 2; part++) {
+                            int types = frames.getShort() & 0xffff;
+                            for (int t = 0; t < types; t++) {
+                                skipVerificationType(frames);
+                            }
+                        }
+                    }
+                }
+                position += delta + 1;
+                positions.add(position);
+            }
+            return positions;
+        }
+
+        private static void skipVerificationType(ByteBuffer frames) {
+            int tag = frames.get() & 0xff;
+            if (tag == OBJECT || tag == UNINITIALIZED) {
+                frames.getShort();
+            }
+        }
+
+        /**
+         * Moves all frames to the probes of their blocks
+         */
+        private byte[] rewriteFrames(byte[] stackMapTable) throws IOException {
+            ByteBuffer frames = ByteBuffer.wrap(stackMapTable);
+            ByteArrayOutputStream result = new ByteArrayOutputStream(stackMapTable.length + 16);
+            DataOutputStream out = new DataOutputStream(result);
+
+            int count = frames.getShort() & 0xffff;
+            out.writeShort(count);
+            int position = -1;
+            int newPrevious = -1;
+            for (int i = 0; i < count; i++) {
+                int type = frames.get() & 0xff;
+                int delta = type < 128 ? type % 64 : frames.getShort() & 0xffff;
+                position += delta + 1;
+                int newPosition = slot(position);
+                int newDelta = newPosition - newPrevious - 1;
+                newPrevious = newPosition;
+                if (newDelta > 0xffff) {
+                    return null;
+                }
+
+                if (type < 64) {
+                    if (newDelta < 64) {
+                        out.writeByte(newDelta);
+                    } else {
+                        out.writeByte(251);
+                        out.writeShort(newDelta);
+                    }
+                } else if (type < 128) {
+                    if (newDelta < 64) {
+                        out.writeByte(64 + newDelta);
+                    } else {
+                        out.writeByte(247);
+                        out.writeShort(newDelta);
+                    }
+                    copyVerificationType(frames, out);
+                } else {
+                    out.writeByte(type);
+                    out.writeShort(newDelta);
+                    if (type == 247) {
+                        copyVerificationType(frames, out);
+                    } else if (type >= 252 && type <= 254) {
+                        for (int local = 0; local < type - 251; local++) {
+                            copyVerificationType(frames, out);
+                        }
+                    } else if (type == 255) {
+                        for (int part = 0; part < 2; part++) {
+                            int types = frames.getShort() & 0xffff;
+                            out.writeShort(types);
+                            for (int t = 0; t < types; t++) {
+                                copyVerificationType(frames, out);
+                            }
+                        }
+                    }
+                }
+            }
+            out.flush();
+            return result.toByteArray();
+        }
+
+        private void copyVerificationType(ByteBuffer frames, DataOutputStream out) throws IOException {
+            int tag = frames.get() & 0xff;
+            out.writeByte(tag);
+            if (tag == OBJECT) {
+                out.writeShort(frames.getShort());
+            } else if (tag == UNINITIALIZED) {
+                //Refers to the 'new' instruction itself, not to the probe in front of it
+                out.writeShort(newPositions[frames.getShort() & 0xffff]);
+            }
+        }
+
+        private byte[] rewriteLineNumbers(byte[] table) {
+            ByteBuffer entries = ByteBuffer.wrap(table.clone());
+            int count = entries.getShort() & 0xffff;
+            for (int i = 0; i < count; i++) {
+                int offset = 2 + 4 * i;
+                entries.putShort(offset, (short) slot(entries.getShort(offset) & 0xffff));
+            }
+            return entries.array();
+        }
+
+        private byte[] rewriteLocalVariables(byte[] table) {
+            ByteBuffer entries = ByteBuffer.wrap(table.clone());
+            int count = entries.getShort() & 0xffff;
+            for (int i = 0; i < count; i++) {
+                int offset = 2 + 10 * i;
+                int start = entries.getShort(offset) & 0xffff;
+                int end = start + (entries.getShort(offset + 2) & 0xffff);
+                int newStart = slot(start);
+                entries.putShort(offset, (short) newStart);
+                entries.putShort(offset + 2, (short) (slot(Math.min(end, code.length)) - newStart));
+            }
+            return entries.array();
+        }
+
+        /**
+         * @return the length of the instruction or -1 if it is not supported
+         */
+        private int instructionLength(int position) {
+            int opcode = code[position] & 0xff;
+            int length = OPCODE_LENGTHS[opcode];
+            if (length != 0) {
+                return length;
+            }
+            int table = position + 1 + padding(position);
+            switch (opcode) {
+                case TABLESWITCH:
+                    return table - position + 12 + 4 * (s4(table + 8) - s4(table + 4) + 1);
+                case LOOKUPSWITCH:
+                    return table - position + 8 + 8 * s4(table + 4);
+                case WIDE:
+                    return (code[position + 1] & 0xff) == IINC ? 6 : 4;
+                default:
+                    return -1;
+            }
+        }
+
+        private List<Integer> switchTargets(int position) {
+            int opcode = code[position] & 0xff;
+            int table = position + 1 + padding(position);
+            List<Integer> targets = new ArrayList<>();
+            targets.add(position + s4(table));
+            if (opcode == TABLESWITCH) {
+                int entries = s4(table + 8) - s4(table + 4) + 1;
+                for (int i = 0; i < entries; i++) {
+                    targets.add(position + s4(table + 12 + 4 * i));
+                }
+            } else {
+                int pairs = s4(table + 4);
+                for (int i = 0; i < pairs; i++) {
+                    targets.add(position + s4(table + 12 + 8 * i));
+                }
+            }
+            return targets;
+        }
+
+        private static int padding(int position) {
+            return (4 - (position + 1) % 4) % 4;
+        }
+
+        private static boolean isBranch(int opcode) {
+            return opcode >= IFEQ && opcode <= GOTO || opcode == IFNULL || opcode == IFNONNULL;
+        }
+
+        private int s2(int position) {
+            return (short) ((code[position] & 0xff) << 8 | code[position + 1] & 0xff);
+        }
+
+        private int s4(int position) {
+            return (code[position] & 0xff) << 24 | (code[position + 1] & 0xff) << 16
+                    | (code[position + 2] & 0xff) << 8 | code[position + 3] & 0xff;
+        }
+
+        private int u2() {
+            return in.getShort() & 0xffff;
+        }
+    }
+}
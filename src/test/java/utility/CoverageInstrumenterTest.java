@@ -0,0 +1,233 @@
+package utility;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoverageInstrumenterTest {
+    private static final String CLASS_NAME = "sample.Branches";
+    /**
+     * Few enough branches that the jump back of the loop in 'longMethod' still fits in 16 bits with probes
+     */
+    private static final int LONG_METHOD_BRANCHES = 500;
+    /**
+     * Enough branches that the jump back of the loop in 'tooLongMethod' only fits in 16 bits without probes
+     */
+    private static final int TOO_LONG_METHOD_BRANCHES = 1200;
+
+    private static Path directory;
+    private static Map<String, byte[]> original;
+    private static Map<String, byte[]> instrumented;
+
+    @BeforeAll
+    static void compile() throws IOException {
+        directory = Files.createTempDirectory("coverage-instrumenter");
+        Path source = IOFileFixtures.write(Files.createDirectory(directory.resolve("sample")).resolve("Branches.java"),
+                sampleSource());
+        InMemoryCompiler.Result result = new InMemoryCompiler(directory).compile(Collections.singletonList(source));
+        assertTrue(result.isSuccess(), () -> String.join("\n", result.getErrors()));
+
+        original = result.getClasses();
+        instrumented = new HashMap<>();
+        CoverageInstrumenter instrumenter = new CoverageInstrumenter("sample/");
+        for (Map.Entry<String, byte[]> entry : original.entrySet()) {
+            String internalName = entry.getKey().replace('.', '/');
+            instrumented.put(entry.getKey(), instrumenter.instrument(internalName, entry.getValue()));
+        }
+    }
+
+    @AfterAll
+    static void deleteDirectory() throws IOException {
+        IOFileFixtures.delete(directory);
+    }
+
+    @Test
+    void keepsBehaviour() throws Exception {
+        Class<?> expected = load(original);
+        Class<?> actual = load(instrumented);
+
+        for (int n : new int[]{-2, 0, 1, 2, 3, 7, 100, 100000}) {
+            for (String method : new String[]{"loop", "tableSwitch", "lookupSwitch", "longMethod", "tooLongMethod"}) {
+                assertEquals(call(expected, method, n), call(actual, method, n), method + "(" + n + ")");
+            }
+        }
+        for (String text : new String[]{"12", "x", "", "stop", "go"}) {
+            for (String method : new String[]{"tryCatch", "stringSwitch"}) {
+                assertEquals(call(expected, method, text), call(actual, method, text), method + "(" + text + ")");
+            }
+        }
+    }
+
+    @Test
+    void keepsLineNumbers() throws Exception {
+        assertEquals(call(load(original), "lineOfFailure"), call(load(instrumented), "lineOfFailure"));
+    }
+
+    @Test
+    void leavesTooLongMethodsAsTheyAre() throws Exception {
+        Class<?> branches = load(instrumented);
+
+        assertTrue(countEdges(trace(branches, "longMethod", 10)) > LONG_METHOD_BRANCHES);
+        assertEquals(0, countEdges(trace(branches, "tooLongMethod", 10)));
+    }
+
+    @Test
+    void reportsHitProbes() throws Exception {
+        Class<?> branches = load(instrumented);
+
+        byte[] one = trace(branches, "tableSwitch", 1);
+        byte[] two = trace(branches, "tableSwitch", 2);
+        byte[] again = trace(branches, "tableSwitch", 1);
+
+        assertTrue(countEdges(one) > 0);
+        assertNotEquals(Arrays.toString(one), Arrays.toString(two));
+        assertEquals(Arrays.toString(one), Arrays.toString(again));
+        assertEquals(0, countEdges(trace(load(original), "tableSwitch", 1)));
+    }
+
+    private static byte[] trace(Class<?> branches, String method, int argument) throws Exception {
+        CoverageRuntime.Trace trace = CoverageRuntime.startTrace();
+        try {
+            call(branches, method, argument);
+        } finally {
+            CoverageRuntime.stopTrace();
+        }
+        return trace.getCounts();
+    }
+
+    private static int countEdges(byte[] counts) {
+        int edges = 0;
+        for (byte count : counts) {
+            if (count != 0) {
+                edges++;
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Loads the class with a new loader, which verifies it like every class not loaded by the boot loader
+     */
+    private static Class<?> load(Map<String, byte[]> classes) throws ClassNotFoundException {
+        return Class.forName(CLASS_NAME, true, new InMemoryClassLoader(classes,
+                CoverageInstrumenterTest.class.getClassLoader()));
+    }
+
+    private static Object call(Class<?> branches, String name, Object... arguments) throws Exception {
+        for (Method method : branches.getMethods()) {
+            if (method.getName().equals(name)) {
+                return method.invoke(null, arguments);
+            }
+        }
+        throw new NoSuchMethodException(name);
+    }
+
+    private static String branches(int count) {
+        StringBuilder branches = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            branches.append("            if (x % 7 == ").append(i % 7).append(") { x = x * 31 + ").append(i)
+                    .append("; } else { x -= i; }\n");
+        }
+        return branches.toString();
+    }
+
+    private static String sampleSource() {
+        return "package sample;\n"
+                + "\n"
+                + "public class Branches {\n"
+                + "    public static int loop(int n) {\n"
+                + "        int sum = 0;\n"
+                + "        for (int i = 0; i < n; i++) {\n"
+                + "            if (i % 3 == 0) {\n"
+                + "                sum += i;\n"
+                + "            } else {\n"
+                + "                sum--;\n"
+                + "            }\n"
+                + "        }\n"
+                + "        return sum;\n"
+                + "    }\n"
+                + "\n"
+                + "    public static String tableSwitch(int n) {\n"
+                + "        long padding = n;\n"
+                + "        switch (n) {\n"
+                + "            case 0: return \"zero\";\n"
+                + "            case 1: return \"one\";\n"
+                + "            case 2: return \"two\" + padding;\n"
+                + "            case 3: return \"three\";\n"
+                + "            default: return \"many\";\n"
+                + "        }\n"
+                + "    }\n"
+                + "\n"
+                + "    public static int lookupSwitch(int n) {\n"
+                + "        switch (n) {\n"
+                + "            case -100: return 1;\n"
+                + "            case 7: return 2;\n"
+                + "            case 100000: return 3;\n"
+                + "            default: return n > 0 ? 4 : 5;\n"
+                + "        }\n"
+                + "    }\n"
+                + "\n"
+                + "    public static int stringSwitch(String text) {\n"
+                + "        switch (text) {\n"
+                + "            case \"go\": return 1;\n"
+                + "            case \"stop\": return 2;\n"
+                + "            default: return text.length();\n"
+                + "        }\n"
+                + "    }\n"
+                + "\n"
+                + "    public static int tryCatch(String text) {\n"
+                + "        int result = 0;\n"
+                + "        try {\n"
+                + "            result = Integer.parseInt(text);\n"
+                + "        } catch (NumberFormatException e) {\n"
+                + "            result = -1;\n"
+                + "        } finally {\n"
+                + "            result *= 2;\n"
+                + "        }\n"
+                + "        return result;\n"
+                + "    }\n"
+                + "\n"
+                + "    public static int lineOfFailure() {\n"
+                + "        try {\n"
+                + "            fail();\n"
+                + "        } catch (IllegalStateException e) {\n"
+                + "            return e.getStackTrace()[0].getLineNumber();\n"
+                + "        }\n"
+                + "        return -1;\n"
+                + "    }\n"
+                + "\n"
+                + "    private static void fail() {\n"
+                + "        throw new IllegalStateException();\n"
+                + "    }\n"
+                + "\n"
+                + "    public static long longMethod(int n) {\n"
+                + "        long x = 0;\n"
+                + "        for (int i = 0; i < n; i++) {\n"
+                + branches(LONG_METHOD_BRANCHES)
+                + "        }\n"
+                + "        return x;\n"
+                + "    }\n"
+                + "\n"
+                + "    public static long tooLongMethod(int n) {\n"
+                + "        long x = 0;\n"
+                + "        for (int i = 0; i < n; i++) {\n"
+                + branches(TOO_LONG_METHOD_BRANCHES)
+                + "        }\n"
+                + "        return x;\n"
+                + "    }\n"
+                + "}\n";
+    }
+}
@@ -0,0 +1,93 @@
+package utility;
+
+/**
+ * Collects the edge coverage of programs instrumented by the {@link CoverageInstrumenter}.
+ * Every probe reports its id here. Like AFL, an edge is the pair of the previous and the current probe,
+ * counted in a small hash map.
+ * <p>
+ * The coverage is collected per thread (and the threads they start), so several programs can be traced in parallel.
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+public final class CoverageRuntime {
+    /**
+     * The number of counted edges. Probe ids are smaller than this.
+     */
+    public static final int MAP_SIZE = 1 << 15;
+
+    private static final InheritableThreadLocal<Trace> TRACE = new InheritableThreadLocal<>();
+    private static volatile boolean agentInstalled = false;
+
+    private CoverageRuntime() {
+        throw new AssertionError("Utility class constructor.");
+    }
+
+    /**
+     * Called by the probes of instrumented code
+     *
+     * @param probe is the id of the probe
+     */
+    public static void hit(int probe) {
+        Trace trace = TRACE.get();
+        if (trace != null) {
+            trace.hit(probe);
+        }
+    }
+
+    /**
+     * Starts a new trace for the current thread and the threads it starts from now on
+     *
+     * @return the new trace
+     */
+    public static Trace startTrace() {
+        Trace trace = new Trace();
+        TRACE.set(trace);
+        return trace;
+    }
+
+    /**
+     * Stops tracing the current thread
+     */
+    public static void stopTrace() {
+        TRACE.remove();
+    }
+
+    /**
+     * Checks whether the {@link CoverageAgent} instruments the loaded classes
+     *
+     * @return true if the agent was installed
+     */
+    public static boolean isAgentInstalled() {
+        return agentInstalled;
+    }
+
+    static void setAgentInstalled() {
+        agentInstalled = true;
+    }
+
+    /**
+     * The edges hit while tracing
+     */
+    public static final class Trace {
+        private final byte[] counts = new byte[MAP_SIZE];
+        private int previous = 0;
+
+        private void hit(int probe) {
+            int edge = (probe ^ previous) & (MAP_SIZE - 1);
+            if (counts[edge] != (byte) 0xff) {
+                counts[edge]++;
+            }
+            previous = probe >> 1;
+        }
+
+        /**
+         * Gets the hit counts of the edges, saturated at 255
+         *
+         * @return the hit counts indexed by edge
+         */
+        public byte[] getCounts() {
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package utility;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CoverageRuntimeTest {
+    @AfterEach
+    void stopTrace() {
+        CoverageRuntime.stopTrace();
+    }
+
+    @Test
+    void countsEdgesBetweenProbes() {
+        CoverageRuntime.Trace trace = CoverageRuntime.startTrace();
+        CoverageRuntime.hit(6);
+        CoverageRuntime.hit(10);
+        CoverageRuntime.hit(6);
+
+        byte[] counts = trace.getCounts();
+        assertEquals(1, counts[6]);
+        assertEquals(1, counts[10 ^ 3]);
+        assertEquals(1, counts[6 ^ 5]);
+        assertEquals(3, countHits(counts));
+    }
+
+    @Test
+    void saturatesCounts() {
+        CoverageRuntime.Trace trace = CoverageRuntime.startTrace();
+        for (int i = 0; i < 1000; i++) {
+            CoverageRuntime.hit(0);
+        }
+
+        assertEquals(255, trace.getCounts()[0] & 0xff);
+    }
+
+    @Test
+    void countsNothingWithoutTrace() {
+        CoverageRuntime.Trace trace = CoverageRuntime.startTrace();
+        CoverageRuntime.stopTrace();
+        CoverageRuntime.hit(1);
+        CoverageRuntime.hit(2);
+
+        assertEquals(0, countHits(trace.getCounts()));
+    }
+
+    @Test
+    void tracesStartedThreads() throws InterruptedException {
+        CoverageRuntime.Trace trace = CoverageRuntime.startTrace();
+        Thread thread = new Thread(() -> CoverageRuntime.hit(42));
+        thread.start();
+        thread.join();
+
+        assertEquals(1, trace.getCounts()[42]);
+    }
+
+    @Test
+    void separatesTracesOfThreads() throws InterruptedException {
+        CoverageRuntime.Trace trace = CoverageRuntime.startTrace();
+        CoverageRuntime.Trace[] other = new CoverageRuntime.Trace[1];
+        Thread thread = new Thread(() -> {
+            other[0] = CoverageRuntime.startTrace();
+            CoverageRuntime.hit(7);
+        });
+        thread.start();
+        thread.join();
+
+        assertEquals(1, other[0].getCounts()[7]);
+        assertEquals(0, countHits(trace.getCounts()));
+    }
+
+    private static int countHits(byte[] counts) {
+        int hits = 0;
+        for (byte count : counts) {
+            hits += count & 0xff;
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,413 @@
+package utility;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Compares the performance of two implementations of a program, e.g. an optimized reference solution and its
+ * previous version, on the inputs of io-files.
+ * Both implementations run in the same JVM, each in its own {@link SubmissionClassLoader}.
+ * Their runs are interleaved round by round (the order alternates every round), so drifts like the JIT or a busy
+ * machine affect both alike.
+ * <p>
+ * Every input is timed on its own and attributed to its command keyword, the first word of the input.
+ * The speedup of a keyword is the baseline time divided by the candidate time, so values above 1 mean the candidate
+ * is faster. Its 95% confidence interval is bootstrapped from the totals of the measured rounds.
+ * Outputs and failures of the implementations are compared in every round and each divergence is reported.
+ * <p>
+ * Usage: {@code java utility.DifferentialBenchmark [options] <candidate-classes> <baseline-classes> <io-file-dir>}
+ * <ul>
+ * <li>{@code --main=<class>} main class of the candidate (default: the class utility.DummyMain extends)</li>
+ * <li>{@code --baseline-main=<class>} main class of the baseline (default: the main class of the candidate)</li>
+ * <li>{@code --warmup=<n>} rounds to let the JIT compile both implementations, which aren't measured (default: 5)</li>
+ * <li>{@code --rounds=<n>} measured rounds (default: 20)</li>
+ * <li>{@code --timeout=<ms>} time limit of a single run, which aborts the benchmark (default: 10000)</li>
+ * </ul>
+ * Both classes arguments can be the same directory if the two main classes live side by side.
+ * <p>
+ * Notice: The loader of an implementation is kept for all its runs, so the JIT compiled code isn't thrown away.
+ * The implementations have to reset their static values themselves.
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+public final class DifferentialBenchmark {
+    private static final int RESAMPLES = 10000;
+    private static final double CONFIDENCE = 0.95;
+    private static final String EMPTY_KEYWORD = "(empty)";
+    private static final long DEFAULT_TIMEOUT_MILLIS = 10000;
+
+    private final IsolatedProgram candidate;
+    private final IsolatedProgram baseline;
+    private final long timeoutMillis;
+    private final List<Run> runs = new ArrayList<>();
+    private final Map<String, Integer> commandsByKeyword = new LinkedHashMap<>();
+    private final Map<String, long[][]> roundNanosByKeyword = new LinkedHashMap<>();
+    private final List<String> divergences = new ArrayList<>();
+
+    /**
+     * Creates a benchmark of two implementations
+     *
+     * @param candidate     is the implementation to evaluate
+     * @param baseline      is the implementation to compare with
+     * @param ioFiles       are the io-files whose inputs are run
+     * @param timeoutMillis is the time limit of a single run
+     * @throws IOException if an io-file can't be read
+     */
+    public DifferentialBenchmark(IsolatedProgram candidate, IsolatedProgram baseline, List<Path> ioFiles,
+                                 long timeoutMillis) throws IOException {
+        this.candidate = candidate;
+        this.baseline = baseline;
+        this.timeoutMillis = timeoutMillis;
+        for (Path ioFile : ioFiles) {
+            Run run = new Run(ioFile, IsolatedProgram.inputsOf(IOFileParser.parse(ioFile)),
+                    IOFileParser.readCommandLineArgs(ioFile));
+            for (String keyword : run.keywords) {
+                commandsByKeyword.merge(keyword, 1, Integer::sum);
+            }
+            runs.add(run);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String mainClass = DummyMain.class.getSuperclass().getName();
+        String baselineMainClass = null;
+        int warmupRounds = 5;
+        int rounds = 20;
+        long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+        List<String> positional = new ArrayList<>();
+
+        for (String arg : args) {
+            if (arg.startsWith("--main=")) {
+                mainClass = value(arg);
+            } else if (arg.startsWith("--baseline-main=")) {
+                baselineMainClass = value(arg);
+            } else if (arg.startsWith("--warmup=")) {
+                warmupRounds = Integer.parseInt(value(arg));
+            } else if (arg.startsWith("--rounds=")) {
+                rounds = Integer.parseInt(value(arg));
+            } else if (arg.startsWith("--timeout=")) {
+                timeoutMillis = Long.parseLong(value(arg));
+            } else {
+                positional.add(arg);
+            }
+        }
+
+        if (positional.size() != 3 || warmupRounds < 0 || rounds < 2 || timeoutMillis <= 0) {
+            System.err.println("Usage: java utility.DifferentialBenchmark [--main=<class>] [--baseline-main=<class>]"
+                    + " [--warmup=<n>] [--rounds=<n>] [--timeout=<ms>] <candidate-classes> <baseline-classes>"
+                    + " <io-file-dir>");
+            System.exit(2);
+        }
+
+        IsolatedProgram candidate = load(Paths.get(positional.get(0)), mainClass);
+        IsolatedProgram baseline = load(Paths.get(positional.get(1)),
+                baselineMainClass == null ? mainClass : baselineMainClass);
+        List<Path> ioFiles = BatchGrader.listIOFiles(Paths.get(positional.get(2)));
+        DifferentialBenchmark benchmark = new DifferentialBenchmark(candidate, baseline, ioFiles, timeoutMillis);
+        System.out.println("Comparing with " + ioFiles.size() + " io-files in " + warmupRounds + " warmup and "
+                + rounds + " measured rounds...");
+        try {
+            benchmark.measure(warmupRounds, rounds);
+        } catch (IllegalStateException e) {
+            System.out.println(e.getMessage());
+            //The program exceeding the time limit may still be alive
+            System.exit(1);
+        }
+        benchmark.printReport(System.out);
+        System.exit(benchmark.getDivergences().isEmpty() ? 0 : 1);
+    }
+
+    private static IsolatedProgram load(Path classes, String mainClass) throws Exception {
+        SubmissionClassLoader loader = new SubmissionClassLoader(new URL[]{classes.toUri().toURL()},
+                DifferentialBenchmark.class.getClassLoader());
+        return new IsolatedProgram(loader, mainClass);
+    }
+
+    private static String value(String option) {
+        return option.substring(option.indexOf('=') + 1);
+    }
+
+    /**
+     * Runs both implementations with all io-files, alternating which one goes first.
+     * A run exceeding the time limit aborts the measurement, as it may keep running in the background and slow down
+     * all later runs.
+     *
+     * @param warmupRounds are the rounds before the measurement
+     * @param rounds       are the measured rounds
+     * @throws IllegalStateException if a run exceeded the time limit
+     * @throws InterruptedException  if the calling thread is interrupted while waiting
+     */
+    public void measure(int warmupRounds, int rounds) throws InterruptedException {
+        roundNanosByKeyword.clear();
+        divergences.clear();
+        for (String keyword : commandsByKeyword.keySet()) {
+            roundNanosByKeyword.put(keyword, new long[2][rounds]);
+        }
+        for (Run run : runs) {
+            run.hasDiverged = false;
+        }
+
+        for (int round = -warmupRounds; round < rounds; round++) {
+            boolean isCandidateFirst = round % 2 == 0;
+            for (Run run : runs) {
+                long[] candidateNanos = new long[run.inputs.size()];
+                long[] baselineNanos = new long[run.inputs.size()];
+                IsolatedProgram.Result candidateResult;
+                IsolatedProgram.Result baselineResult;
+                if (isCandidateFirst) {
+                    candidateResult = runTimed(candidate, "candidate", run, candidateNanos);
+                    baselineResult = runTimed(baseline, "baseline", run, baselineNanos);
+                } else {
+                    baselineResult = runTimed(baseline, "baseline", run, baselineNanos);
+                    candidateResult = runTimed(candidate, "candidate", run, candidateNanos);
+                }
+
+                if (!run.hasDiverged) {
+                    compare(run, candidateResult, baselineResult);
+                }
+                if (round >= 0) {
+                    for (int i = 0; i < run.keywords.size(); i++) {
+                        long[][] roundNanos = roundNanosByKeyword.get(run.keywords.get(i));
+                        roundNanos[0][round] += candidateNanos[i];
+                        roundNanos[1][round] += baselineNanos[i];
+                    }
+                }
+            }
+        }
+    }
+
+    private IsolatedProgram.Result runTimed(IsolatedProgram program, String name, Run run, long[] inputNanos)
+            throws InterruptedException {
+        IsolatedProgram.Result result = program.runTimed(run.inputs, run.args, inputNanos, timeoutMillis);
+        if (result == null) {
+            throw new IllegalStateException(run.ioFile + ": the " + name + " exceeded the time limit of "
+                    + timeoutMillis + " ms");
+        }
+        return result;
+    }
+
+    /**
+     * Remembers the first difference between the results of an io-file
+     */
+    private void compare(Run run, IsolatedProgram.Result candidateResult, IsolatedProgram.Result baselineResult) {
+        List<String> candidateOutputs = candidateResult.getOutputs();
+        List<String> baselineOutputs = baselineResult.getOutputs();
+        for (int i = 0; i < Math.max(candidateOutputs.size(), baselineOutputs.size()); i++) {
+            if (i >= candidateOutputs.size() || i >= baselineOutputs.size()) {
+                divergences.add(run.ioFile + ": the candidate quitted after " + candidateOutputs.size()
+                        + " inputs, the baseline after " + baselineOutputs.size());
+                run.hasDiverged = true;
+                return;
+            }
+            if (!Objects.equals(candidateOutputs.get(i), baselineOutputs.get(i))) {
+                divergences.add(run.ioFile + ": input " + (i + 1) + " '" + run.inputs.get(i) + "'\n"
+                        + "  candidate: " + candidateOutputs.get(i) + "\n"
+                        + "  baseline:  " + baselineOutputs.get(i));
+                run.hasDiverged = true;
+                return;
+            }
+        }
+
+        String candidateFailure = describe(candidateResult.getFailure());
+        String baselineFailure = describe(baselineResult.getFailure());
+        if (!Objects.equals(candidateFailure, baselineFailure)) {
+            divergences.add(run.ioFile + ": the candidate failed with " + candidateFailure
+                    + ", the baseline with " + baselineFailure);
+            run.hasDiverged = true;
+        }
+    }
+
+    private static String describe(Throwable failure) {
+        return failure == null ? null : failure.getClass().getName();
+    }
+
+    /**
+     * Gets the divergences found by the last measurement, one per io-file at most
+     *
+     * @return the descriptions of the divergences
+     */
+    public List<String> getDivergences() {
+        return Collections.unmodifiableList(divergences);
+    }
+
+    /**
+     * Gets the speedups of the last measurement
+     *
+     * @return the speedup of each command keyword, the keywords taking most time in the baseline first
+     */
+    public List<Speedup> getSpeedups() {
+        List<Speedup> speedups = new ArrayList<>();
+        long[][] totalNanos = null;
+        for (Map.Entry<String, long[][]> entry : roundNanosByKeyword.entrySet()) {
+            long[][] roundNanos = entry.getValue();
+            speedups.add(new Speedup(entry.getKey(), commandsByKeyword.get(entry.getKey()), roundNanos));
+            if (totalNanos == null) {
+                totalNanos = new long[2][roundNanos[0].length];
+            }
+            for (int round = 0; round < roundNanos[0].length; round++) {
+                totalNanos[0][round] += roundNanos[0][round];
+                totalNanos[1][round] += roundNanos[1][round];
+            }
+        }
+        speedups.sort((first, second) -> Double.compare(second.baselineMillis, first.baselineMillis));
+        if (totalNanos != null) {
+            int commands = 0;
+            for (int count : commandsByKeyword.values()) {
+                commands += count;
+            }
+            speedups.add(new Speedup("total", commands, totalNanos));
+        }
+        return speedups;
+    }
+
+    /**
+     * Prints the speedups and divergences of the last measurement
+     *
+     * @param out is the stream to print to
+     */
+    public void printReport(PrintStream out) {
+        out.printf(Locale.ROOT, "%-20s %9s %14s %14s %8s  %-17s%n", "keyword", "commands", "candidate ms",
+                "baseline ms", "speedup", "95% CI");
+        for (Speedup speedup : getSpeedups()) {
+            out.println(speedup);
+        }
+
+        if (divergences.isEmpty()) {
+            out.println("The outputs of both implementations are the same.");
+        } else {
+            out.println(divergences.size() + " io-files with diverging outputs:");
+            for (String divergence : divergences) {
+                out.println(divergence);
+            }
+        }
+    }
+
+    /**
+     * The inputs of an io-file and their keywords
+     */
+    private static final class Run {
+        private final Path ioFile;
+        private final List<String> inputs;
+        private final String[] args;
+        private final List<String> keywords = new ArrayList<>();
+        private boolean hasDiverged = false;
+
+        Run(Path ioFile, List<String> inputs, String[] args) {
+            this.ioFile = ioFile;
+            this.inputs = inputs;
+            this.args = args;
+            for (String input : inputs) {
+                String keyword = input.split(" ", 2)[0];
+                keywords.add(keyword.isEmpty() ? EMPTY_KEYWORD : keyword);
+            }
+        }
+    }
+
+    /**
+     * The speedup of the candidate over the baseline for the commands of a keyword
+     */
+    public static final class Speedup {
+        private final String keyword;
+        private final int commands;
+        private final double candidateMillis;
+        private final double baselineMillis;
+        private final double speedup;
+        private final double lower;
+        private final double upper;
+
+        /**
+         * Computes the speedup and bootstraps its confidence interval.
+         * Every resample draws rounds with replacement and keeps the times of both implementations of a round
+         * together, as they ran right after each other.
+         *
+         * @param keyword    is the command keyword
+         * @param commands   is the number of commands with the keyword per round
+         * @param roundNanos are the total times of the candidate [0] and the baseline [1] in each round
+         */
+        Speedup(String keyword, int commands, long[][] roundNanos) {
+            this.keyword = keyword;
+            this.commands = commands;
+            int rounds = roundNanos[0].length;
+            long candidateSum = 0;
+            long baselineSum = 0;
+            for (int round = 0; round < rounds; round++) {
+                candidateSum += roundNanos[0][round];
+                baselineSum += roundNanos[1][round];
+            }
+            candidateMillis = candidateSum / 1e6 / rounds;
+            baselineMillis = baselineSum / 1e6 / rounds;
+            speedup = ratio(baselineSum, candidateSum);
+
+            //A fixed seed makes the interval of the same measurement reproducible
+            Random random = new Random(keyword.hashCode());
+            double[] resampled = new double[RESAMPLES];
+            for (int resample = 0; resample < RESAMPLES; resample++) {
+                long candidateResum = 0;
+                long baselineResum = 0;
+                for (int i = 0; i < rounds; i++) {
+                    int round = random.nextInt(rounds);
+                    candidateResum += roundNanos[0][round];
+                    baselineResum += roundNanos[1][round];
+                }
+                resampled[resample] = ratio(baselineResum, candidateResum);
+            }
+            Arrays.sort(resampled);
+            lower = resampled[(int) Math.floor((1 - CONFIDENCE) / 2 * (RESAMPLES - 1))];
+            upper = resampled[(int) Math.ceil((1 + CONFIDENCE) / 2 * (RESAMPLES - 1))];
+        }
+
+        private static double ratio(long baselineNanos, long candidateNanos) {
+            return candidateNanos == 0 ? Double.NaN : (double) baselineNanos / candidateNanos;
+        }
+
+        public String getKeyword() {
+            return keyword;
+        }
+
+        /**
+         * Gets how many times the candidate is faster than the baseline
+         *
+         * @return the speedup or NaN if the candidate took no measurable time
+         */
+        public double getSpeedup() {
+            return speedup;
+        }
+
+        public double getLower() {
+            return lower;
+        }
+
+        public double getUpper() {
+            return upper;
+        }
+
+        /**
+         * Checks whether the difference is significant, i.e. the confidence interval doesn't contain 1
+         *
+         * @return true if the candidate is faster or slower for sure
+         */
+        public boolean isSignificant() {
+            return lower > 1 || upper < 1;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-20s %9d %14.3f %14.3f %7.2fx  [%.2fx, %.2fx]%s", keyword, commands,
+                    candidateMillis, baselineMillis, speedup, lower, upper,
+                    !isSignificant() ? "" : speedup > 1 ? " faster" : " slower");
+        }
+    }
+}
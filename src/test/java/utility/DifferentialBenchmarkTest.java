@@ -0,0 +1,178 @@
+package utility;
+
+import edu.kit.informatik.Terminal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DifferentialBenchmarkTest {
+    private static final int ROUNDS = 20;
+
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("differential-benchmark");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        IOFileFixtures.delete(directory);
+    }
+
+    @Test
+    void findsConstantSpeedup() {
+        DifferentialBenchmark.Speedup speedup = new DifferentialBenchmark.Speedup("add", 3, times(
+                round -> 1000 + 10 * round, round -> 2 * (1000 + 10 * round)));
+
+        assertEquals(2, speedup.getSpeedup(), 1e-12);
+        assertEquals(2, speedup.getLower(), 1e-12);
+        assertEquals(2, speedup.getUpper(), 1e-12);
+        assertTrue(speedup.isSignificant());
+        assertTrue(speedup.toString().endsWith("[2.00x, 2.00x] faster"), speedup.toString());
+    }
+
+    @Test
+    void bootstrapsReproducibleInterval() {
+        long[][] roundNanos = times(round -> 1000 + round * 7919 % 13 * 50, round -> 1200 + round * 104729 % 11 * 60);
+        DifferentialBenchmark.Speedup speedup = new DifferentialBenchmark.Speedup("add", 1, roundNanos);
+        DifferentialBenchmark.Speedup again = new DifferentialBenchmark.Speedup("add", 1, roundNanos);
+
+        assertTrue(speedup.getLower() < speedup.getSpeedup() && speedup.getSpeedup() < speedup.getUpper());
+        assertEquals(speedup.getLower(), again.getLower());
+        assertEquals(speedup.getUpper(), again.getUpper());
+    }
+
+    @Test
+    void findsNoSignificanceInNoise() {
+        DifferentialBenchmark.Speedup speedup = new DifferentialBenchmark.Speedup("print", 1, times(
+                round -> round % 2 == 0 ? 1000 : 3000, round -> round % 2 == 0 ? 3000 : 1000));
+
+        assertEquals(1, speedup.getSpeedup(), 1e-12);
+        assertTrue(speedup.getLower() < 1 && speedup.getUpper() > 1);
+        assertFalse(speedup.isSignificant());
+        assertTrue(speedup.toString().endsWith("]"), speedup.toString());
+    }
+
+    @Test
+    void findsSlowdown() {
+        DifferentialBenchmark.Speedup speedup = new DifferentialBenchmark.Speedup("move", 1, times(
+                round -> 3000 + round % 3 * 100, round -> 2000 + round % 5 * 100));
+
+        assertTrue(speedup.getUpper() < 1);
+        assertTrue(speedup.toString().endsWith(" slower"), speedup.toString());
+    }
+
+    @Test
+    void formatsIndependentOfLocale() {
+        Locale previous = Locale.getDefault();
+        Locale.setDefault(Locale.GERMANY);
+        try {
+            String line = new DifferentialBenchmark.Speedup("add", 1, times(round -> 4, round -> 6)).toString();
+            assertTrue(line.contains("1.50x  [1.50x, 1.50x]"), line);
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+
+    @Test
+    void reportsDivergences() throws Exception {
+        Path ioFile = IOFileFixtures.write(directory.resolve("test.io"), "> a", "A", "> b", "B");
+        Path classes = compileSamples();
+
+        DifferentialBenchmark same = new DifferentialBenchmark(load(classes, "sample.Upper"),
+                load(classes, "sample.Upper"), Collections.singletonList(ioFile), 10000);
+        same.measure(1, 2);
+        assertTrue(same.getDivergences().isEmpty(), same.getDivergences().toString());
+        List<DifferentialBenchmark.Speedup> speedups = same.getSpeedups();
+        assertEquals("total", speedups.get(speedups.size() - 1).getKeyword());
+
+        DifferentialBenchmark different = new DifferentialBenchmark(load(classes, "sample.Upper"),
+                load(classes, "sample.Lower"), Collections.singletonList(ioFile), 10000);
+        different.measure(0, 2);
+        assertEquals(1, different.getDivergences().size());
+        assertTrue(different.getDivergences().get(0).endsWith("candidate: A\n  baseline:  a"),
+                different.getDivergences().get(0));
+    }
+
+    @Test
+    void abortsAfterTimeLimit() throws Exception {
+        Path ioFile = IOFileFixtures.write(directory.resolve("test.io"), "> a", "A", "> hang", "HANG");
+        Path classes = compileSamples();
+
+        DifferentialBenchmark benchmark = new DifferentialBenchmark(load(classes, "sample.Upper"),
+                load(classes, "sample.Upper"), Collections.singletonList(ioFile), 500);
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> benchmark.measure(0, 2));
+        assertTrue(e.getMessage().endsWith("exceeded the time limit of 500 ms"), e.getMessage());
+    }
+
+    private interface RoundTime {
+        long nanos(int round);
+    }
+
+    private static long[][] times(RoundTime candidate, RoundTime baseline) {
+        long[][] roundNanos = new long[2][ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            roundNanos[0][round] = candidate.nanos(round);
+            roundNanos[1][round] = baseline.nanos(round);
+        }
+        return roundNanos;
+    }
+
+    private static IsolatedProgram load(Path classes, String mainClass) throws Exception {
+        return new IsolatedProgram(new SubmissionClassLoader(new URL[]{classes.toUri().toURL()},
+                DifferentialBenchmarkTest.class.getClassLoader()), mainClass);
+    }
+
+    /**
+     * Compiles two programs answering inputs in upper and lower case. 'hang' blocks until the program is interrupted.
+     */
+    private Path compileSamples() throws IOException, URISyntaxException {
+        Path classes = Files.createDirectory(directory.resolve("classes"));
+        Path sources = Files.createDirectory(directory.resolve("sample"));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        for (String name : new String[]{"Upper", "Lower"}) {
+            Path source = IOFileFixtures.write(sources.resolve(name + ".java"),
+                    "package sample;",
+                    "",
+                    "import edu.kit.informatik.Terminal;",
+                    "",
+                    "public class " + name + " {",
+                    "    public static void main(String[] args) {",
+                    "        String line;",
+                    "        while (!(line = Terminal.readLine()).equals(\"quit\")) {",
+                    "            if (line.equals(\"hang\")) {",
+                    "                try {",
+                    "                    Thread.sleep(60000);",
+                    "                } catch (InterruptedException e) {",
+                    "                    return;",
+                    "                }",
+                    "            }",
+                    "            Terminal.printLine(line.to" + name + "Case());",
+                    "        }",
+                    "    }",
+                    "}");
+            assertEquals(0, compiler.run(null, null, null, "-d", classes.toString(), "-cp",
+                    Paths.get(Terminal.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString(),
+                    source.toString()));
+        }
+        return classes;
+    }
+}
@@ -0,0 +1,188 @@
+package utility;
+
+import edu.kit.informatik.Terminal;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the {@link GradingStatsMXBean statistics} of the tests of a {@link TestBase} and the runs of a
+ * {@link BatchGrader} and provides them as platform MBean.
+ * The counters are thread safe, so concurrent tests and runs can update them.
+ * <p>
+ * The inputs and outputs of tests using the shared {@link Terminal} are counted by the terminal itself.
+ * Programs with their own terminal, i.e. {@link IsolatedProgram}s, are added when a run is finished.
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+public final class GradingStats implements GradingStatsMXBean {
+    public static final String OBJECT_NAME = "utility:type=GradingStats";
+    public static final GradingStats INSTANCE = new GradingStats();
+
+    private final AtomicLong nextTestId = new AtomicLong();
+    private final Map<Long, RunningTest> runningTests = new ConcurrentHashMap<>();
+    private final LongAdder passedTests = new LongAdder();
+    private final LongAdder failedTests = new LongAdder();
+    private final LongAdder isolatedCommands = new LongAdder();
+    private final LongAdder isolatedOutputChars = new LongAdder();
+    private volatile String currentIOFile;
+    private String slowestTest;
+    private long slowestTestNanos = 0;
+    private boolean isRegistered = false;
+
+    private GradingStats() {
+    }
+
+    /**
+     * Registers the statistics at the platform MBeanServer, if that didn't happen yet
+     */
+    public static void register() {
+        synchronized (INSTANCE) {
+            if (INSTANCE.isRegistered) {
+                return;
+            }
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+            } catch (InstanceAlreadyExistsException ignored) {
+                //A copy of the framework in another class loader was first
+            } catch (JMException e) {
+                throw new IllegalStateException("Unable to register the grading statistics", e);
+            }
+            INSTANCE.isRegistered = true;
+        }
+    }
+
+    /**
+     * Records the start of a test
+     *
+     * @param name is the name of the test
+     * @return the id of the test, which has to be passed to {@link #testFinished(long, boolean)}
+     */
+    public long testStarted(String name) {
+        long id = nextTestId.incrementAndGet();
+        runningTests.put(id, new RunningTest(name, System.nanoTime()));
+        return id;
+    }
+
+    /**
+     * Records the end of a test
+     *
+     * @param id     is the id of the test
+     * @param passed is true if the test passed
+     */
+    public void testFinished(long id, boolean passed) {
+        RunningTest test = runningTests.remove(id);
+        if (test == null) {
+            return;
+        }
+        if (passed) {
+            passedTests.increment();
+        } else {
+            failedTests.increment();
+        }
+
+        long nanos = System.nanoTime() - test.startNanos;
+        synchronized (this) {
+            if (nanos > slowestTestNanos) {
+                slowestTestNanos = nanos;
+                slowestTest = test.name;
+            }
+        }
+    }
+
+    /**
+     * Records that an io-file is started
+     *
+     * @param ioFile is the path of the io-file
+     */
+    public void ioFileStarted(String ioFile) {
+        currentIOFile = ioFile;
+    }
+
+    /**
+     * Adds the inputs and outputs of a program with its own terminal
+     *
+     * @param commands    is the number of inputs the program read
+     * @param outputChars is the number of characters the program printed
+     */
+    public void addIsolatedRun(long commands, long outputChars) {
+        isolatedCommands.add(commands);
+        isolatedOutputChars.add(outputChars);
+    }
+
+    @Override
+    public int getRunningTests() {
+        return runningTests.size();
+    }
+
+    @Override
+    public long getPassedTests() {
+        return passedTests.sum();
+    }
+
+    @Override
+    public long getFailedTests() {
+        return failedTests.sum();
+    }
+
+    @Override
+    public String getCurrentIOFile() {
+        return currentIOFile;
+    }
+
+    @Override
+    public long getExecutedCommands() {
+        return Terminal.getReadTestInputs() + isolatedCommands.sum();
+    }
+
+    @Override
+    public long getCapturedOutputChars() {
+        return Terminal.getCapturedTestOutputChars() + isolatedOutputChars.sum();
+    }
+
+    @Override
+    public synchronized String getSlowestTest() {
+        RunningTest running = longestRunningTest();
+        if (running != null && System.nanoTime() - running.startNanos > slowestTestNanos) {
+            return running.name + " (running)";
+        }
+        return slowestTest;
+    }
+
+    @Override
+    public synchronized double getSlowestTestMillis() {
+        RunningTest running = longestRunningTest();
+        long nanos = running == null ? 0 : System.nanoTime() - running.startNanos;
+        return Math.max(nanos, slowestTestNanos) / 1e6;
+    }
+
+    private RunningTest longestRunningTest() {
+        RunningTest longest = null;
+        for (RunningTest test : runningTests.values()) {
+            if (longest == null || test.startNanos < longest.startNanos) {
+                longest = test;
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * The name and start of a running test
+     */
+    private static final class RunningTest {
+        private final String name;
+        private final long startNanos;
+
+        RunningTest(String name, long startNanos) {
+            this.name = name;
+            this.startNanos = startNanos;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package utility;
+
+/**
+ * Live statistics of the tests and grading runs of this JVM.
+ * They can be watched with jconsole or other JMX clients under {@value GradingStats#OBJECT_NAME}.
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+public interface GradingStatsMXBean {
+    /**
+     * @return the number of tests and grading runs currently running
+     */
+    int getRunningTests();
+
+    /**
+     * @return the number of passed tests and grading runs with a full score
+     */
+    long getPassedTests();
+
+    /**
+     * @return the number of failed tests and grading runs without a full score
+     */
+    long getFailedTests();
+
+    /**
+     * @return the io-file started last or null if no io-file was started yet
+     */
+    String getCurrentIOFile();
+
+    /**
+     * @return the number of inputs the tested programs have read
+     */
+    long getExecutedCommands();
+
+    /**
+     * @return the number of characters the tested programs have printed
+     */
+    long getCapturedOutputChars();
+
+    /**
+     * @return the name of the test or grading run that took longest so far, including running ones,
+     * or null if there was none
+     */
+    String getSlowestTest();
+
+    /**
+     * @return the duration of the slowest test so far in milliseconds or 0 if there was none
+     */
+    double getSlowestTestMillis();
+}
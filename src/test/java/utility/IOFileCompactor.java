@@ -0,0 +1,229 @@
+package utility;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds duplicated io-files and folds repeated pairs of io-files into '{@code #repeat}' blocks.
+ * <p>
+ * Usage: {@code java utility.IOFileCompactor [--out=<dir>] <io-file-dir>}
+ * <ul>
+ * <li>{@code --out=<dir>} writes the compacted suite to this directory (default: only report)</li>
+ * </ul>
+ * An io-file with the same command line args and pairs as another one is a duplicate, as it tests nothing new.
+ * Duplicates are reported and left out of the compacted suite.
+ * <p>
+ * Within an io-file every sequence of up to {@value #MAX_PERIOD} pairs directly repeated at least once is folded
+ * into a block. An io-file is only replaced by its compacted form if that has fewer lines and reads as the same
+ * pairs. The comment at the start of an io-file is kept, compressed io-files are written uncompressed.
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+public final class IOFileCompactor {
+    /**
+     * The maximal number of pairs of a folded block
+     */
+    public static final int MAX_PERIOD = 256;
+    private static final String[] COMPRESSED_EXTENSIONS = {".gz", ".deflate"};
+
+    private IOFileCompactor() {
+        throw new AssertionError("Utility class constructor.");
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path out = null;
+        List<String> positional = new ArrayList<>();
+
+        for (String arg : args) {
+            if (arg.startsWith("--out=")) {
+                out = Paths.get(value(arg));
+            } else {
+                positional.add(arg);
+            }
+        }
+
+        if (positional.size() != 1) {
+            System.err.println("Usage: java utility.IOFileCompactor [--out=<dir>] <io-file-dir>");
+            System.exit(2);
+        }
+
+        Path directory = Paths.get(positional.get(0));
+        Map<List<Object>, Path> firstByContent = new HashMap<>();
+        int duplicates = 0;
+        long linesBefore = 0;
+        long linesAfter = 0;
+        for (Path ioFile : BatchGrader.listIOFiles(directory)) {
+            List<TestPair> pairs = IOFileParser.parse(ioFile);
+            String[] commandLineArgs = IOFileParser.readCommandLineArgs(ioFile);
+            List<Object> content = Arrays.asList(commandLineArgs == null ? null : Arrays.asList(commandLineArgs),
+                    pairs);
+            Path first = firstByContent.putIfAbsent(content, ioFile);
+            if (first != null) {
+                System.out.println(ioFile + " is a duplicate of " + first);
+                duplicates++;
+                continue;
+            }
+
+            List<String> lines = readLines(ioFile);
+            List<String> compacted = compact(header(lines), pairs);
+            boolean isSmaller = compacted.size() < lines.size() && isSamePairs(compacted, pairs);
+            if (isSmaller) {
+                System.out.println(ioFile + ": " + pairs.size() + " pairs, " + lines.size() + " -> "
+                        + compacted.size() + " lines");
+            }
+            linesBefore += lines.size();
+            linesAfter += isSmaller ? compacted.size() : lines.size();
+
+            if (out != null) {
+                Path target = out.resolve(directory.relativize(ioFile).toString());
+                Files.createDirectories(target.toAbsolutePath().getParent());
+                if (isSmaller) {
+                    Files.write(uncompressedName(target), compacted, StandardCharsets.UTF_8);
+                } else {
+                    Files.copy(ioFile, target);
+                }
+            }
+        }
+
+        System.out.printf("%d duplicated io-files, %d -> %d lines of distinct io-files%s%n", duplicates,
+                linesBefore, linesAfter, out == null ? "" : ". The compacted suite was written to '" + out + "'");
+    }
+
+    private static String value(String option) {
+        return option.substring(option.indexOf('=') + 1);
+    }
+
+    private static List<String> readLines(Path ioFile) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = IOFileParser.newReader(ioFile)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Gets the comment before the first pair, which also contains the command line args
+     */
+    private static List<String> header(List<String> lines) {
+        int end = 0;
+        while (end < lines.size() && !lines.get(end).startsWith(IOFileParser.INPUT_LINE_PREFIX)
+                && !lines.get(end).startsWith(IOFileReader.REPEAT_DIRECTIVE)
+                && !lines.get(end).startsWith(IOFileReader.FOR_DIRECTIVE)) {
+            end++;
+        }
+        return lines.subList(0, end);
+    }
+
+    /**
+     * Writes pairs as lines of an io-file and folds directly repeated sequences of pairs into blocks.
+     * At every position the sequence saving most lines is folded.
+     *
+     * @param header are the lines before the first pair
+     * @param pairs  are the pairs
+     * @return the lines of the compacted io-file
+     */
+    static List<String> compact(List<String> header, List<TestPair> pairs) {
+        List<String> lines = new ArrayList<>(header);
+        Map<TestPair, String> texts = new HashMap<>();
+        int position = 0;
+        while (position < pairs.size()) {
+            int bestPeriod = 1;
+            int bestRepetitions = 1;
+            long bestSaving = 0;
+            for (int period = 1; period <= MAX_PERIOD && position + 2 * period <= pairs.size(); period++) {
+                int repetitions = 1;
+                while (position + (repetitions + 1) * period <= pairs.size()
+                        && isRepeated(pairs, position, period, position + repetitions * period)) {
+                    repetitions++;
+                }
+                //The block costs the lines of its directive and its end
+                long saving = (long) (repetitions - 1) * countLines(pairs, position, period, texts) - 2;
+                if (repetitions > 1 && saving > bestSaving) {
+                    bestPeriod = period;
+                    bestRepetitions = repetitions;
+                    bestSaving = saving;
+                }
+            }
+
+            if (bestRepetitions > 1) {
+                lines.add(IOFileReader.REPEAT_DIRECTIVE + bestRepetitions);
+            }
+            for (int i = position; i < position + bestPeriod; i++) {
+                lines.add(textOf(pairs.get(i), texts));
+            }
+            if (bestRepetitions > 1) {
+                lines.add(IOFileReader.END_DIRECTIVE);
+            }
+            position += bestPeriod * bestRepetitions;
+        }
+
+        //A text of a pair contains all of its lines
+        List<String> result = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            result.addAll(Arrays.asList(line.split("\n", -1)));
+        }
+        return result;
+    }
+
+    private static boolean isRepeated(List<TestPair> pairs, int start, int period, int repetitionStart) {
+        for (int i = 0; i < period; i++) {
+            if (!pairs.get(start + i).equals(pairs.get(repetitionStart + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long countLines(List<TestPair> pairs, int start, int period, Map<TestPair, String> texts) {
+        long count = 0;
+        for (int i = start; i < start + period; i++) {
+            String text = textOf(pairs.get(i), texts);
+            for (int c = 0; c < text.length(); c++) {
+                if (text.charAt(c) == '\n') {
+                    count++;
+                }
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private static String textOf(TestPair pair, Map<TestPair, String> texts) {
+        return texts.computeIfAbsent(pair, IOFileParser::toIOFileText);
+    }
+
+    /**
+     * Checks that the compacted lines read as the original pairs, so the compaction never changes a test
+     */
+    private static boolean isSamePairs(List<String> lines, List<TestPair> pairs) {
+        try {
+            return IOFileParser.parse(new BufferedReader(new StringReader(String.join("\n", lines)))).equals(pairs);
+        } catch (IOException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static Path uncompressedName(Path target) {
+        String name = target.getFileName().toString();
+        for (String extension : COMPRESSED_EXTENSIONS) {
+            if (name.endsWith(extension)) {
+                return target.resolveSibling(name.substring(0, name.length() - extension.length()));
+            }
+        }
+        return target;
+    }
+}
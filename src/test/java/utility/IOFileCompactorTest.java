@@ -0,0 +1,72 @@
+package utility;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IOFileCompactorTest {
+    private static final TestPair ADD = new TestPair("add", "OK");
+    private static final TestPair COUNT = new TestPair("count", "1");
+    private static final TestPair QUIT = new TestPair("quit");
+
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("io-file-compactor");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        IOFileFixtures.delete(directory);
+    }
+
+    @Test
+    void foldsRepeatedPairs() throws IOException {
+        List<TestPair> pairs = Arrays.asList(ADD, COUNT, ADD, COUNT, ADD, COUNT, QUIT);
+
+        List<String> lines = IOFileCompactor.compact(Collections.singletonList("comment"), pairs);
+
+        assertEquals(Arrays.asList("comment", IOFileReader.REPEAT_DIRECTIVE + 3, "> add", "OK", "> count", "1",
+                IOFileReader.END_DIRECTIVE, "> quit"), lines);
+        assertEquals(pairs, IOFileParser.parse(new BufferedReader(new StringReader(String.join("\n", lines)))));
+    }
+
+    @Test
+    void keepsRepetitionsNotSavingLines() {
+        List<String> lines = IOFileCompactor.compact(Collections.emptyList(), Arrays.asList(ADD, ADD, QUIT));
+
+        assertEquals(Arrays.asList("> add", "OK", "> add", "OK", "> quit"), lines);
+    }
+
+    @Test
+    void writesCompactedSuiteWithoutDuplicates() throws IOException {
+        Path suite = Files.createDirectory(directory.resolve("suite"));
+        Path out = directory.resolve("out");
+        IOFileFixtures.write(suite.resolve("a.io"), "> add", "OK", "> add", "OK", "> add", "OK", "> add", "OK");
+        IOFileFixtures.write(suite.resolve("b.io"), "#repeat 4", "> add", "OK", "#end");
+        Files.write(suite.resolve("c.io.gz"), IOFileFixtures.gzip("> count\n1\n".getBytes(StandardCharsets.UTF_8)));
+
+        IOFileCompactor.main(new String[]{"--out=" + out, suite.toString()});
+
+        assertEquals(Arrays.asList(IOFileReader.REPEAT_DIRECTIVE + 4, "> add", "OK", IOFileReader.END_DIRECTIVE),
+                Files.readAllLines(out.resolve("a.io")));
+        assertFalse(Files.exists(out.resolve("b.io")));
+        assertTrue(Files.exists(out.resolve("c.io.gz")));
+        assertEquals(IOFileParser.parse(suite.resolve("c.io.gz")), IOFileParser.parse(out.resolve("c.io.gz")));
+    }
+}
@@ -0,0 +1,233 @@
+package utility;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A part of an io-file: Either a single input with its expected output or a repeated block of parts.
+ * Repeated blocks are expanded lazily, so an io-file describing millions of pairs never has them all in memory.
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+abstract class IOFileElement {
+    static final Map<String, Long> NO_VARIABLES = Collections.emptyMap();
+    private static final String VARIABLE_START = "${";
+    private static final String VARIABLE_END = "}";
+
+    /**
+     * Expands this element into its test pairs
+     *
+     * @param variables are the values of the index variables of the enclosing blocks
+     * @return an iterator creating the pairs on demand
+     */
+    abstract Iterator<TestPair> expand(Map<String, Long> variables);
+
+    /**
+     * Gets the number of pairs this element expands to
+     *
+     * @return the number of pairs
+     */
+    abstract long size();
+
+    /**
+     * An input and its expected output
+     */
+    static final class Pair extends IOFileElement {
+        private final String input;
+        private final String output;
+        private final boolean hasVariables;
+        /**
+         * The pair of an element without variables, which is the same for all repetitions
+         */
+        private TestPair testPair;
+
+        /**
+         * @param input  is the input without the input prefix
+         * @param output is the expected output or null if there is none
+         */
+        Pair(String input, String output) {
+            //A canonical output lets the pair be interned without creating it again
+            this.input = input;
+            this.output = TestPairInterner.SUITE.intern(output);
+            this.hasVariables = input.contains(VARIABLE_START) || output != null && output.contains(VARIABLE_START);
+        }
+
+        @Override
+        Iterator<TestPair> expand(Map<String, Long> variables) {
+            if (!hasVariables) {
+                if (testPair == null) {
+                    testPair = TestPairInterner.SUITE.intern(IOFileParser.toTestPair(input, output));
+                }
+                return Collections.singletonList(testPair).iterator();
+            }
+            return Collections.singletonList(IOFileParser.toTestPair(substitute(input, variables),
+                    output == null ? null : substitute(output, variables))).iterator();
+        }
+
+        @Override
+        long size() {
+            return 1;
+        }
+    }
+
+    /**
+     * A block of elements repeated for every value of an index variable
+     */
+    static final class Repeat extends IOFileElement {
+        private final String variable;
+        private final long from;
+        private final long to;
+        private final List<IOFileElement> body;
+
+        /**
+         * @param variable is the name of the index variable or null if the block has none
+         * @param from     is the first value of the index
+         * @param to       is the last value of the index (inclusive)
+         * @param body     are the repeated elements
+         */
+        Repeat(String variable, long from, long to, List<IOFileElement> body) {
+            this.variable = variable;
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        Iterator<TestPair> expand(Map<String, Long> variables) {
+            return new Expansion(variables);
+        }
+
+        @Override
+        long size() {
+            long bodySize = 0;
+            for (IOFileElement element : body) {
+                bodySize += element.size();
+            }
+            return (Math.abs(to - from) + 1) * bodySize;
+        }
+
+        /**
+         * Iterates lazily over all repetitions of the body
+         */
+        private final class Expansion implements Iterator<TestPair> {
+            private final Map<String, Long> outerVariables;
+            private final long step = from <= to ? 1 : -1;
+            private long index = from;
+            private int bodyIndex = 0;
+            private boolean finished = false;
+            private Map<String, Long> variables;
+            private Iterator<TestPair> current = Collections.emptyIterator();
+
+            Expansion(Map<String, Long> outerVariables) {
+                this.outerVariables = outerVariables;
+            }
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext()) {
+                    if (finished || body.isEmpty()) {
+                        return false;
+                    }
+                    if (bodyIndex == body.size()) {
+                        if (index == to) {
+                            finished = true;
+                            return false;
+                        }
+                        bodyIndex = 0;
+                        index += step;
+                    }
+                    if (bodyIndex == 0) {
+                        variables = withIndex();
+                    }
+                    current = body.get(bodyIndex++).expand(variables);
+                }
+                return true;
+            }
+
+            @Override
+            public TestPair next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+
+            private Map<String, Long> withIndex() {
+                if (variable == null) {
+                    return outerVariables;
+                }
+                Map<String, Long> result = new HashMap<>(outerVariables);
+                result.put(variable, index);
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Replaces all '${variable}' and '${variable[+-*&#47;%]number}' in a text by their values.
+     * Unknown variables and malformed expressions are left as they are.
+     *
+     * @param text      is the text containing the expressions
+     * @param variables are the values of the variables
+     * @return the text with the values
+     */
+    static String substitute(String text, Map<String, Long> variables) {
+        int start = text.indexOf(VARIABLE_START);
+        if (start < 0) {
+            return text;
+        }
+
+        StringBuilder result = new StringBuilder(text.length());
+        int copied = 0;
+        while (start >= 0) {
+            int end = text.indexOf(VARIABLE_END, start);
+            if (end < 0) {
+                break;
+            }
+            Long value = evaluate(text.substring(start + VARIABLE_START.length(), end), variables);
+            if (value != null) {
+                result.append(text, copied, start).append(value.longValue());
+                copied = end + VARIABLE_END.length();
+            }
+            start = text.indexOf(VARIABLE_START, end);
+        }
+        return result.append(text, copied, text.length()).toString();
+    }
+
+    private static Long evaluate(String expression, Map<String, Long> variables) {
+        int nameEnd = 0;
+        while (nameEnd < expression.length() && Character.isJavaIdentifierPart(expression.charAt(nameEnd))) {
+            nameEnd++;
+        }
+        Long value = variables.get(expression.substring(0, nameEnd));
+        if (value == null || nameEnd == expression.length()) {
+            return value;
+        }
+
+        long operand;
+        try {
+            operand = Long.parseLong(expression.substring(nameEnd + 1).trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        switch (expression.charAt(nameEnd)) {
+            case '+':
+                return value + operand;
+            case '-':
+                return value - operand;
+            case '*':
+                return value * operand;
+            case '/':
+                return operand == 0 ? null : value / operand;
+            case '%':
+                return operand == 0 ? null : value % operand;
+            default:
+                return null;
+        }
+    }
+}
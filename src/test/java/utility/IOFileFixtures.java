@@ -0,0 +1,70 @@
+package utility;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Creates the io-files used by the tests of the framework
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+final class IOFileFixtures {
+    private IOFileFixtures() {
+        throw new AssertionError("Utility class constructor.");
+    }
+
+    /**
+     * Writes the lines of an io-file
+     *
+     * @param file  is the io-file
+     * @param lines are the lines
+     * @return the io-file
+     * @throws IOException if the file can't be written
+     */
+    static Path write(Path file, String... lines) throws IOException {
+        return Files.write(file, Arrays.asList(lines), StandardCharsets.UTF_8);
+    }
+
+    static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    static byte[] deflate(byte[] data) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new DeflaterOutputStream(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Deletes a directory with all its content
+     *
+     * @param directory is the directory
+     * @throws IOException if a file can't be deleted
+     */
+    static void delete(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package utility;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Parses io-files into {@link TestPair}s.
+ * This contains the io-file syntax, so it can be used outside of a JUnit test as well.
+ * For the syntax look at the examples or in the wiki (It's very intuitive).
+ * The directives for generating pairs are described in {@link IOFileReader}.
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+public final class IOFileParser {
+    public static final String INPUT_LINE_PREFIX = "> ";
+    public static final String STARTS_WITH_POSTFIX = "...";
+    /**
+     * The first line of an expected output whose lines may appear in any order
+     */
+    public static final String UNORDERED_MARKER = "#unordered";
+    public static final String[] IO_FILE_EXTENSIONS = {".io", ".io.gz", ".io.deflate"};
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String DEFLATE_EXTENSION = ".deflate";
+    private static final int GZIP_MAGIC_FIRST = 0x1f;
+    private static final int GZIP_MAGIC_SECOND = 0x8b;
+    /**
+     * The compression method in the low bits of the first byte of a zlib stream
+     */
+    private static final int ZLIB_DEFLATE_METHOD = 8;
+    /**
+     * The flag in the second byte of a zlib stream for a preset dictionary, which is never used for io-files
+     */
+    private static final int ZLIB_PRESET_DICTIONARY = 0x20;
+
+    private IOFileParser() {
+        throw new AssertionError("Utility class constructor.");
+    }
+
+    /**
+     * Loads TestPairs from inputs and outputs specified by an io-file.
+     *
+     * @param path is the path of the io-file
+     * @return the test pairs
+     * @throws IOException if the file can't be read
+     */
+    public static List<TestPair> parse(Path path) throws IOException {
+        try (BufferedReader reader = newReader(path)) {
+            return parse(reader);
+        }
+    }
+
+    /**
+     * Loads TestPairs from inputs and outputs read from an io-file.
+     * All pairs are kept in memory, so use {@link #open(Path)} for big or generated io-files.
+     * Equal outputs share one instance with those of the other io-files, see {@link TestPairInterner}.
+     *
+     * @param reader is the reader of the io-file
+     * @return the test pairs
+     * @throws IOException if the reader fails or the io-file contains a syntax error
+     */
+    public static List<TestPair> parse(BufferedReader reader) throws IOException {
+        List<TestPair> testPairs = new ArrayList<>();
+        IOFileReader pairs = new IOFileReader(reader);
+        try {
+            pairs.forEachRemaining(pair -> testPairs.add(TestPairInterner.SUITE.intern(pair)));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return testPairs;
+    }
+
+    /**
+     * Opens an io-file for reading its TestPairs one after another.
+     * Repeated blocks are expanded while reading, so the pairs are never all in memory.
+     *
+     * @param path is the path of the io-file
+     * @return the reader of the pairs. Reading failures are thrown as {@link UncheckedIOException}.
+     * @throws IOException if the file can't be opened
+     */
+    public static IOFileReader open(Path path) throws IOException {
+        return new IOFileReader(newReader(path));
+    }
+
+    /**
+     * Opens an io-file for reading. Gzip compressed io-files are detected by their magic bytes, deflate (zlib)
+     * compressed ones by the extension '.deflate', because the zlib header can be plain text as well.
+     * Compressed io-files are decompressed by a {@link PrefetchingReader} on its own thread while the test runs.
+     *
+     * @param path is the path of the plain, gzip or deflate (zlib) compressed io-file
+     * @return the reader of the io-file
+     * @throws IOException if the file can't be opened or a '.deflate' file isn't deflate compressed
+     */
+    public static BufferedReader newReader(Path path) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE);
+        in.mark(2);
+        int first = in.read();
+        int second = in.read();
+        in.reset();
+
+        InputStream decompressed;
+        if (first == GZIP_MAGIC_FIRST && second == GZIP_MAGIC_SECOND) {
+            decompressed = new GZIPInputStream(in, BUFFER_SIZE);
+        } else if (path.getFileName().toString().endsWith(DEFLATE_EXTENSION)) {
+            if (!isZlibHeader(first, second)) {
+                in.close();
+                throw new IOException("The io-file '" + path + "' isn't deflate (zlib) compressed");
+            }
+            decompressed = new InflaterInputStream(in);
+        } else {
+            return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+
+        Reader reader = new InputStreamReader(decompressed, StandardCharsets.UTF_8);
+        return new BufferedReader(new PrefetchingReader(reader, path.getFileName().toString()), BUFFER_SIZE);
+    }
+
+    /**
+     * Checks the header of a zlib stream: the deflate method, no preset dictionary and the checksum of both bytes
+     */
+    private static boolean isZlibHeader(int first, int second) {
+        return first >= 0 && second >= 0 && (first & 0x0f) == ZLIB_DEFLATE_METHOD
+                && (second & ZLIB_PRESET_DICTIONARY) == 0 && (first << 8 | second) % 31 == 0;
+    }
+
+    /**
+     * Checks whether a file is an io-file by its name
+     *
+     * @param path is the path of the file
+     * @return true if the file is a plain or compressed io-file
+     */
+    public static boolean isIOFile(Path path) {
+        String name = path.getFileName().toString();
+        for (String extension : IO_FILE_EXTENSIONS) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts the TestPairs of an io-file without expanding repeated blocks
+     *
+     * @param path is the path of the io-file
+     * @return the number of pairs
+     * @throws IOException if the file can't be read or contains a syntax error
+     */
+    public static long count(Path path) throws IOException {
+        long count = 0;
+        try (IOFileReader pairs = open(path)) {
+            IOFileElement element;
+            while ((element = pairs.readElement()) != null) {
+                count += element.size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the commandLineArgs from a specified io file
+     *
+     * @param path is the path of the io-file
+     * @return the commandLineArgs or null if the io-file doesn't specify any
+     * @throws IOException if the file can't be read
+     */
+    public static String[] readCommandLineArgs(Path path) throws IOException {
+        try (BufferedReader reader = newReader(path)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(TestBase.IO_FILE_COMMAND_LINE_ARGS_PREFIX)) {
+                    line = line.substring(TestBase.IO_FILE_COMMAND_LINE_ARGS_PREFIX.length());
+                    return line.split(" ");
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * In here some syntax of the io-file is defined
+     *
+     * @param input  is the input
+     * @param output is the expected output or null if there is none
+     * @return the pair
+     */
+    static TestPair toTestPair(String input, String output) {
+        if (output == null) {
+            return new TestPair(input);
+        }
+        if (output.startsWith(TestBase.IO_FILE_HASH_PREFIX) && !output.contains("\n")) {
+            String hash = output.substring(TestBase.IO_FILE_HASH_PREFIX.length()).trim();
+            return new TestPair(input, hash, TestPair.Type.CHECK_HASH);
+        }
+        if (output.equals(UNORDERED_MARKER) || output.startsWith(UNORDERED_MARKER + "\n")) {
+            String lines = output.substring(Math.min(output.length(), UNORDERED_MARKER.length() + 1));
+            return new TestPair(input, lines, TestPair.Type.CHECK_UNORDERED);
+        }
+        if (output.startsWith(TestBase.ERROR_PREFIX)) {
+            return new TestPair(input, output, TestPair.Type.CHECK_FOR_ERROR);
+        }
+        if (output.contains(STARTS_WITH_POSTFIX)) {
+            String start = output.substring(0, output.indexOf(STARTS_WITH_POSTFIX));
+            assert !start.isEmpty() : "Check your .io file for the test. There is a line only containing ...";
+            return new TestPair(input, start, TestPair.Type.CHECK_STARTS_WITH);
+        }
+
+        return new TestPair(input, output);
+    }
+
+    /**
+     * Writes a pair in the syntax of an io-file, the opposite of {@link #toTestPair(String, String)}
+     *
+     * @param pair is the pair
+     * @return the input line followed by the lines of the expected output, without a final line break
+     * @throws IllegalArgumentException if the type of the pair can't be expressed in an io-file
+     */
+    static String toIOFileText(TestPair pair) {
+        String inputLine = INPUT_LINE_PREFIX + pair.getInput();
+        switch (pair.getType()) {
+            case CHECK_FOR_NO_OUTPUT:
+                return inputLine;
+            case CHECK_EQUALS:
+            case CHECK_FOR_ERROR:
+                return inputLine + "\n" + escapeLines(pair.getOutput());
+            case CHECK_STARTS_WITH:
+                return inputLine + "\n" + escapeLines(pair.getOutput()) + STARTS_WITH_POSTFIX;
+            case CHECK_UNORDERED:
+                return inputLine + "\n" + UNORDERED_MARKER
+                        + (pair.getOutput().isEmpty() ? "" : "\n" + escapeLines(pair.getOutput()));
+            case CHECK_HASH:
+                return inputLine + "\n" + TestBase.IO_FILE_HASH_PREFIX + pair.getOutput();
+            default:
+                throw new IllegalArgumentException("An io-file can't express " + pair);
+        }
+    }
+
+    private static String escapeLines(String output) {
+        String[] lines = output.split("\n", -1);
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = IOFileReader.escape(lines[i]);
+        }
+        return String.join("\n", lines);
+    }
+}
@@ -0,0 +1,63 @@
+package utility;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IOFileParserTest {
+    private static final String IO_FILE = "Comment\n> msg\nWABBALUBBADUPDUP!\n> pi\n3.14...\n> error\nError, ...\n";
+    private static final List<TestPair> PAIRS = Arrays.asList(
+            new TestPair("msg", "WABBALUBBADUPDUP!"),
+            new TestPair("pi", "3.14", TestPair.Type.CHECK_STARTS_WITH),
+            new TestPair("error", "Error, ...", TestPair.Type.CHECK_FOR_ERROR));
+
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("io-file-parser");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        IOFileFixtures.delete(directory);
+    }
+
+    @Test
+    void parsesCompressedIOFiles() throws IOException {
+        byte[] plain = IO_FILE.getBytes(StandardCharsets.UTF_8);
+        Path gzip = Files.write(directory.resolve("test.io.gz"), IOFileFixtures.gzip(plain));
+        Path deflate = Files.write(directory.resolve("test.io.deflate"), IOFileFixtures.deflate(plain));
+
+        assertEquals(PAIRS, IOFileParser.parse(gzip));
+        assertEquals(PAIRS, IOFileParser.parse(deflate));
+    }
+
+    @Test
+    void readsPlainTextLookingLikeZlibHeader() throws IOException {
+        //'x' followed by these characters is a multiple of 31 like a zlib header
+        for (String comment : new String[]{"x ", "x^", "x?", "x}"}) {
+            Path ioFile = IOFileFixtures.write(directory.resolve("test.io"), comment + " comment", "> pi", "3.14...");
+
+            assertEquals(Arrays.asList(new TestPair("pi", "3.14", TestPair.Type.CHECK_STARTS_WITH)),
+                    IOFileParser.parse(ioFile));
+        }
+    }
+
+    @Test
+    void rejectsUncompressedDeflateFile() throws IOException {
+        Path ioFile = IOFileFixtures.write(directory.resolve("test.io.deflate"), "> pi", "3.14...");
+
+        assertThrows(IOException.class, () -> IOFileParser.parse(ioFile));
+    }
+}
@@ -0,0 +1,239 @@
+package utility;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the {@link TestPair}s of an io-file one after another.
+ * Only the pair currently tested and the body of the current repeated block are kept in memory.
+ * <p>
+ * Besides the syntax of {@link IOFileParser} the following directives are supported:
+ * <ul>
+ * <li>'{@code #repeat <count>}' repeats all pairs up to the matching '{@code #end}' count times</li>
+ * <li>'{@code #repeat <count> <variable>}' also counts the variable from 0 to count - 1</li>
+ * <li>'{@code #for <variable> <from>..<to>}' repeats the block for every value from 'from' to 'to' (inclusive)</li>
+ * </ul>
+ * Inside a block '{@code ${variable}}' is replaced in inputs and expected outputs by the current value.
+ * Simple arithmetic like '{@code ${i+1}}' or '{@code ${i%15}}' is supported as well. Blocks can be nested.
+ * <p>
+ * An expected output line looking like a directive is escaped by another '{@value #ESCAPE}', e.g. '{@code ##end}'
+ * for the output line '{@code #end}', see {@link #escape(String)}.
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+public class IOFileReader implements Iterator<TestPair>, Closeable {
+    public static final String REPEAT_DIRECTIVE = "#repeat ";
+    public static final String FOR_DIRECTIVE = "#for ";
+    public static final String END_DIRECTIVE = "#end";
+    /**
+     * The prefix of an expected output line that would be read as a directive otherwise
+     */
+    public static final String ESCAPE = "#";
+    private static final String RANGE_SEPARATOR = "..";
+
+    private final BufferedReader reader;
+    private String lookahead;
+    private int lineNumber = 0;
+    private boolean isFileStart = true;
+    private Iterator<TestPair> expansion = Collections.emptyIterator();
+    private TestPair next;
+
+    /**
+     * Creates a reader for the pairs of an io-file
+     *
+     * @param reader is the reader of the io-file. It is closed with this reader.
+     */
+    public IOFileReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                while (!expansion.hasNext()) {
+                    IOFileElement element = readElement();
+                    if (element == null) {
+                        return false;
+                    }
+                    expansion = element.expand(IOFileElement.NO_VARIABLES);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            next = expansion.next();
+        }
+        return true;
+    }
+
+    @Override
+    public TestPair next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        TestPair result = next;
+        next = null;
+        return result;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Reads the next top-level element without expanding it
+     *
+     * @return the element or null at the end of the file
+     * @throws IOException if the file can't be read or contains a syntax error
+     */
+    IOFileElement readElement() throws IOException {
+        String line = readLine();
+        if (isFileStart) {
+            //Everything before the first input is a comment
+            while (line != null && !line.startsWith(IOFileParser.INPUT_LINE_PREFIX) && !isBlockStart(line)) {
+                line = readLine();
+            }
+            isFileStart = false;
+        }
+
+        if (line == null) {
+            return null;
+        }
+        return readElement(line);
+    }
+
+    private IOFileElement readElement(String line) throws IOException {
+        if (line.startsWith(IOFileParser.INPUT_LINE_PREFIX)) {
+            return readPair(line);
+        } else if (isBlockStart(line)) {
+            return readBlock(line);
+        } else if (isBlockEnd(line)) {
+            throw syntaxError("'" + END_DIRECTIVE + "' without a block to end");
+        }
+        throw syntaxError("Expected output without an input");
+    }
+
+    private IOFileElement readPair(String inputLine) throws IOException {
+        String input = inputLine.replace(IOFileParser.INPUT_LINE_PREFIX, "");
+        StringBuilder output = null;
+
+        String line;
+        while ((line = readLine()) != null) {
+            if (isEscaped(line)) {
+                line = line.substring(ESCAPE.length());
+            } else if (line.startsWith(IOFileParser.INPUT_LINE_PREFIX) || isBlockStart(line) || isBlockEnd(line)) {
+                lookahead = line;
+                break;
+            }
+            if (output == null) {
+                output = new StringBuilder(line);
+            } else {
+                output.append('\n').append(line);
+            }
+        }
+
+        if (output != null && output.indexOf(TestBase.IO_FILE_HASH_PREFIX) == 0
+                && !TestPair.isHashOutput(output.substring(TestBase.IO_FILE_HASH_PREFIX.length()).trim())) {
+            throw syntaxError("Expected '" + TestBase.IO_FILE_HASH_PREFIX + "<length> <sha-256 hash>' as only line");
+        }
+        return new IOFileElement.Pair(input, output == null ? null : output.toString());
+    }
+
+    private IOFileElement readBlock(String header) throws IOException {
+        int headerLineNumber = lineNumber;
+        String[] words = header.trim().split("\\s+");
+        String variable = null;
+        long from;
+        long to;
+        try {
+            if (header.startsWith(REPEAT_DIRECTIVE) && (words.length == 2 || words.length == 3)) {
+                long count = Long.parseLong(words[1]);
+                if (count < 0) {
+                    throw syntaxError("Negative repeat count");
+                }
+                variable = words.length == 3 ? words[2] : null;
+                from = 0;
+                to = count - 1;
+            } else if (header.startsWith(FOR_DIRECTIVE) && words.length == 3 && words[2].contains(RANGE_SEPARATOR)) {
+                variable = words[1];
+                int separator = words[2].indexOf(RANGE_SEPARATOR);
+                from = Long.parseLong(words[2].substring(0, separator));
+                to = Long.parseLong(words[2].substring(separator + RANGE_SEPARATOR.length()));
+            } else {
+                throw syntaxError("Expected '" + REPEAT_DIRECTIVE + "<count> [variable]' or '"
+                        + FOR_DIRECTIVE + "<variable> <from>..<to>'");
+            }
+        } catch (NumberFormatException e) {
+            throw syntaxError("Invalid number in '" + header + "'");
+        }
+
+        List<IOFileElement> body = new ArrayList<>();
+        String line;
+        while (!isBlockEnd(line = readLine())) {
+            if (line == null) {
+                throw syntaxError(headerLineNumber, "Missing '" + END_DIRECTIVE + "' for '" + header + "'");
+            }
+            body.add(readElement(line));
+        }
+
+        if (to < from && header.startsWith(REPEAT_DIRECTIVE)) {
+            //'#repeat 0'
+            return new IOFileElement.Repeat(variable, 0, 0, Collections.emptyList());
+        }
+        return new IOFileElement.Repeat(variable, from, to, body);
+    }
+
+    private String readLine() throws IOException {
+        if (lookahead != null) {
+            String line = lookahead;
+            lookahead = null;
+            return line;
+        }
+        lineNumber++;
+        return reader.readLine();
+    }
+
+    /**
+     * Escapes a line of an expected output, so it isn't read as a directive
+     *
+     * @param line is the line of the output
+     * @return the line prefixed by '{@value #ESCAPE}' if it looks like a directive or an escaped line, otherwise
+     * the line itself
+     */
+    public static String escape(String line) {
+        return needsEscape(line) ? ESCAPE + line : line;
+    }
+
+    private static boolean needsEscape(String line) {
+        return isBlockStart(line) || isBlockEnd(line) || isEscaped(line);
+    }
+
+    private static boolean isEscaped(String line) {
+        return line.startsWith(ESCAPE) && needsEscape(line.substring(ESCAPE.length()));
+    }
+
+    private static boolean isBlockStart(String line) {
+        return line.startsWith(REPEAT_DIRECTIVE) || line.startsWith(FOR_DIRECTIVE);
+    }
+
+    private static boolean isBlockEnd(String line) {
+        return line != null && line.trim().equals(END_DIRECTIVE);
+    }
+
+    private IOException syntaxError(String message) {
+        return syntaxError(lineNumber, message);
+    }
+
+    private static IOException syntaxError(int lineNumber, String message) {
+        return new IOException("Syntax error in io-file at line " + lineNumber + ": " + message);
+    }
+}
@@ -0,0 +1,103 @@
+package utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IOFileReaderTest {
+    @Test
+    void repeatsBlocks() throws IOException {
+        assertEquals(Arrays.asList(pair("a", "OK"), pair("a", "OK"), pair("quit", null)),
+                parse("comment\n#repeat 2\n> a\nOK\n#end\n> quit"));
+    }
+
+    @Test
+    void countsVariables() throws IOException {
+        assertEquals(Arrays.asList(pair("add 0", "1"), pair("add 1", "2")),
+                parse("#repeat 2 i\n> add ${i}\n${i+1}\n#end\n"));
+        assertEquals(Arrays.asList(pair("get 3", "3"), pair("get 2", "2"), pair("get 1", "1")),
+                parse("#for i 3..1\n> get ${i}\n${i}\n#end\n"));
+    }
+
+    @Test
+    void nestsBlocks() throws IOException {
+        assertEquals(Arrays.asList(pair("set 0 0", "0"), pair("set 0 1", "0"), pair("set 1 0", "10"),
+                pair("set 1 1", "10"), pair("print", "done")),
+                parse("#for y 0..1\n#repeat 2 x\n> set ${y} ${x}\n${y*10}\n#end\n#end\n> print\ndone\n"));
+    }
+
+    @Test
+    void skipsEmptyRepeat() throws IOException {
+        assertEquals(Collections.singletonList(pair("quit", null)), parse("#repeat 0\n> a\nOK\n#end\n> quit\n"));
+    }
+
+    @Test
+    void countsPairsWithoutExpanding() throws IOException {
+        try (IOFileReader reader = reader("> a\nOK\n#repeat 1000000000\n#for i 1..3\n> b\n#end\n#end\n")) {
+            assertEquals(1, reader.readElement().size());
+            assertEquals(3000000000L, reader.readElement().size());
+        }
+    }
+
+    @Test
+    void reportsSyntaxErrorsWithLineNumber() {
+        assertSyntaxError("> a\n#repeat 2\n> b\n", 2, "Missing '#end'");
+        assertSyntaxError("> a\nOK\n#end\n", 3, "'#end' without a block");
+        assertSyntaxError("> a\n#repeat -1\n> b\n#end\n", 2, "Negative repeat count");
+        assertSyntaxError("> a\n#repeat many\n#end\n", 2, "Invalid number");
+        assertSyntaxError("> a\n#for i 1-2\n#end\n", 2, "Expected '#repeat <count> [variable]'");
+    }
+
+    @Test
+    void substitutesExpressions() {
+        Map<String, Long> variables = new HashMap<>();
+        variables.put("i", 17L);
+
+        assertEquals("18 16 34 8 2 -3", IOFileElement.substitute("${i+1} ${i-1} ${i*2} ${i/2} ${i%15} ${i-20}",
+                variables));
+        //Division by zero, unknown variables and malformed expressions are left as they are
+        String malformed = "${i/0} ${i%0} ${j} ${j+1} ${i % 2} ${i^2} ${i+x} ${i";
+        assertEquals(malformed, IOFileElement.substitute(malformed, variables));
+        assertEquals("a17b", IOFileElement.substitute("a${i}b", variables));
+    }
+
+    @Test
+    void readsEscapedDirectivesAsOutput() throws IOException {
+        String output = "#end\n #end \n#repeat 2\n#for i 1..2\n##end\n#other";
+        List<TestPair> pairs = parse("#repeat 2\n> print\n##end\n# #end \n##repeat 2\n##for i 1..2\n###end\n"
+                + "#other\n#end\n");
+
+        assertEquals(Arrays.asList(pair("print", output), pair("print", output)), pairs);
+        String written = IOFileParser.toIOFileText(pairs.get(0));
+        assertEquals(pairs.subList(0, 1), parse(written));
+    }
+
+    private static void assertSyntaxError(String ioFile, int line, String message) {
+        IOException e = assertThrows(IOException.class, () -> parse(ioFile));
+        String expected = "Syntax error in io-file at line " + line + ": " + message;
+        assertTrue(e.getMessage().startsWith(expected), () -> "Expected '" + expected + "' but got: " + e.getMessage());
+    }
+
+    private static TestPair pair(String input, String output) {
+        return IOFileParser.toTestPair(input, output);
+    }
+
+    private static IOFileReader reader(String ioFile) {
+        return new IOFileReader(new BufferedReader(new StringReader(ioFile)));
+    }
+
+    private static List<TestPair> parse(String ioFile) throws IOException {
+        return IOFileParser.parse(new BufferedReader(new StringReader(ioFile)));
+    }
+}
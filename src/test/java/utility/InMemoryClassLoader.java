@@ -0,0 +1,67 @@
+package utility;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Loads classes from class files kept in memory, e.g. compiled by the {@link InMemoryCompiler}.
+ * Like the {@link SubmissionClassLoader} it loads child-first and gives each loader its own static values.
+ * It also records which of its classes were loaded, so it is known which classes a test run touched.
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+public class InMemoryClassLoader extends ClassLoader {
+    private final Map<String, byte[]> classes;
+    private final Set<String> loadedClasses = ConcurrentHashMap.newKeySet();
+
+    static {
+        registerAsParallelCapable();
+    }
+
+    /**
+     * Creates a loader for class files
+     *
+     * @param classes are the class files by binary class name
+     * @param parent  is the loader used for everything not contained in the class files
+     */
+    public InMemoryClassLoader(Map<String, byte[]> classes, ClassLoader parent) {
+        super(parent);
+        this.classes = classes;
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loaded = findLoadedClass(name);
+            if (loaded == null) {
+                byte[] bytes = classes.get(name);
+                if (bytes == null && SubmissionClassLoader.isTerminalClass(name)) {
+                    bytes = SubmissionClassLoader.readFrameworkClass(name);
+                }
+
+                if (bytes != null && !SubmissionClassLoader.isParentFirst(name)) {
+                    loaded = defineClass(name, bytes, 0, bytes.length);
+                    loadedClasses.add(name);
+                } else {
+                    loaded = super.loadClass(name, false);
+                }
+            }
+            if (resolve) {
+                resolveClass(loaded);
+            }
+            return loaded;
+        }
+    }
+
+    /**
+     * Gets the names of all classes loaded from memory so far
+     *
+     * @return the binary class names
+     */
+    public Set<String> getLoadedClasses() {
+        return Collections.unmodifiableSet(loadedClasses);
+    }
+}
@@ -0,0 +1,157 @@
+package utility;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles java sources into class files kept in memory.
+ * Dependencies of the compiled sources are taken from the source directory, so only changed files have to be passed.
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+public class InMemoryCompiler {
+    private final JavaCompiler compiler;
+    private final StandardJavaFileManager standardFileManager;
+    private final Path sourceDirectory;
+    private final List<String> options;
+
+    /**
+     * Creates a compiler for a source directory
+     *
+     * @param sourceDirectory is the root of the source packages
+     * @throws IllegalStateException if this JVM has no compiler (it is not a JDK)
+     */
+    public InMemoryCompiler(Path sourceDirectory) {
+        compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("No java compiler available. Please run this with a JDK.");
+        }
+        standardFileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+        this.sourceDirectory = sourceDirectory;
+        options = Arrays.asList(
+                "-sourcepath", sourceDirectory.toString(),
+                "-classpath", System.getProperty("java.class.path"),
+                "-implicit:class",
+                "-Xprefer:source",
+                "-g");
+    }
+
+    /**
+     * Compiles sources and the sources they depend on
+     *
+     * @param sources are the source files to compile
+     * @return the result of the compilation
+     */
+    public Result compile(Collection<Path> sources) {
+        List<File> files = new ArrayList<>(sources.size());
+        for (Path source : sources) {
+            files.add(source.toFile());
+        }
+
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        MemoryFileManager fileManager = new MemoryFileManager(standardFileManager);
+        boolean success = compiler.getTask(null, fileManager, diagnostics, options, null,
+                standardFileManager.getJavaFileObjectsFromFiles(files)).call();
+
+        List<String> errors = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errors.add((diagnostic.getSource() == null ? "" : diagnostic.getSource().getName()
+                        + ":" + diagnostic.getLineNumber() + ": ") + diagnostic.getMessage(null));
+            }
+        }
+        return new Result(success, fileManager.classes, errors);
+    }
+
+    /**
+     * Gets the root of the source packages
+     *
+     * @return the source directory
+     */
+    public Path getSourceDirectory() {
+        return sourceDirectory;
+    }
+
+    /**
+     * The class files and errors of a compilation
+     */
+    public static class Result {
+        private final boolean success;
+        private final Map<String, byte[]> classes;
+        private final List<String> errors;
+
+        Result(boolean success, Map<String, byte[]> classes, List<String> errors) {
+            this.success = success;
+            this.classes = classes;
+            this.errors = errors;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        /**
+         * Gets the compiled classes
+         *
+         * @return the class files by binary class name
+         */
+        public Map<String, byte[]> getClasses() {
+            return classes;
+        }
+
+        public List<String> getErrors() {
+            return errors;
+        }
+    }
+
+    /**
+     * Keeps the class files written by the compiler in memory
+     */
+    private static final class MemoryFileManager extends ForwardingJavaFileManager<JavaFileManager> {
+        private final Map<String, byte[]> classes = new HashMap<>();
+
+        MemoryFileManager(JavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                                                   FileObject sibling) {
+            return new SimpleJavaFileObject(URI.create("memory:///" + className.replace('.', '/') + kind.extension),
+                    kind) {
+                @Override
+                public OutputStream openOutputStream() {
+                    return new ByteArrayOutputStream() {
+                        @Override
+                        public void close() throws IOException {
+                            super.close();
+                            classes.put(className, toByteArray());
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
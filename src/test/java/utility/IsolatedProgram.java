@@ -0,0 +1,283 @@
+package utility;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A tested program whose classes and {@link edu.kit.informatik.Terminal} live in their own class loader.
+ * The program is driven over the terminal of its loader, just like a {@link TestBase} drives the shared terminal.
+ * <p>
+ * Notice: Runs of the same instance share the static values of the program.
+ * Use a new loader for each run if the program doesn't reset them.
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+public class IsolatedProgram {
+    private final Method mainMethod;
+    private final LinkedList<String> inTest;
+    private final LinkedList<StringBuilder> outTest;
+    private final Field testInputSource;
+
+    /**
+     * Loads the main class and the terminal of a program
+     *
+     * @param loader        is the loader of the program, usually a {@link SubmissionClassLoader}
+     * @param mainClassName is the binary name of the class containing the main method
+     * @throws ReflectiveOperationException if the main method or the terminal can't be found
+     */
+    @SuppressWarnings("unchecked")
+    public IsolatedProgram(ClassLoader loader, String mainClassName) throws ReflectiveOperationException {
+        Class<?> mainClass = Class.forName(mainClassName, true, loader);
+        mainMethod = mainClass.getMethod("main", String[].class);
+        if (!Modifier.isStatic(mainMethod.getModifiers())) {
+            throw new NoSuchMethodException(mainClassName + ".main isn't static");
+        }
+
+        Class<?> terminal = Class.forName(edu.kit.informatik.Terminal.class.getName(), true, loader);
+        Field isTest = terminal.getField("isTest");
+        isTest.setBoolean(null, true);
+        inTest = (LinkedList<String>) terminal.getField("IN_TEST").get(null);
+        outTest = (LinkedList<StringBuilder>) terminal.getField("OUT_TEST").get(null);
+        testInputSource = terminal.getField("testInputSource");
+    }
+
+    /**
+     * Runs the program with the given inputs.
+     * 'quit' isn't added automatically, so it should be the last input.
+     *
+     * @param inputs are the lines the program reads
+     * @param args   are the command line args or null
+     * @return the outputs and the failure of this run
+     */
+    public Result run(List<String> inputs, String[] args) {
+        inTest.clear();
+        outTest.clear();
+        inTest.addAll(inputs);
+        return runMain(args);
+    }
+
+    /**
+     * Runs the program with the given inputs and measures how long it takes to process each of them.
+     * An input takes from the moment it is read until the program asks for the next one or terminates.
+     *
+     * @param inputs     are the lines the program reads
+     * @param args       are the command line args or null
+     * @param inputNanos receives the duration of each input in nanoseconds, it needs the size of the inputs.
+     *                   Inputs the program didn't read keep their value.
+     * @return the outputs and the failure of this run
+     */
+    public Result runTimed(List<String> inputs, String[] args, long[] inputNanos) {
+        inTest.clear();
+        outTest.clear();
+        InputClock clock = new InputClock(inputs.iterator(), inputNanos);
+        try {
+            testInputSource.set(null, clock);
+            Result result = runMain(args);
+            clock.stop();
+            return result;
+        } catch (IllegalAccessException e) {
+            return new Result(Collections.emptyList(), e);
+        } finally {
+            try {
+                testInputSource.set(null, null);
+            } catch (IllegalAccessException ignored) {
+                //It couldn't be set either
+            }
+        }
+    }
+
+    private Result runMain(String[] args) {
+        Throwable failure = null;
+        try {
+            mainMethod.invoke(null, (Object) args);
+        } catch (InvocationTargetException e) {
+            failure = e.getCause();
+        } catch (IllegalAccessException e) {
+            failure = e;
+        }
+
+        List<String> outputs = new ArrayList<>(outTest.size());
+        long outputChars = 0;
+        for (StringBuilder output : outTest) {
+            outputs.add(output == null ? null : output.toString());
+            outputChars += output == null ? 0 : output.length();
+        }
+        GradingStats.INSTANCE.addIsolatedRun(outputs.size(), outputChars);
+        inTest.clear();
+        outTest.clear();
+        return new Result(outputs, failure);
+    }
+
+    /**
+     * Runs the program on its own thread and gives up after a time limit.
+     * A program exceeding the limit is interrupted, but it can't be stopped and may keep running in the background.
+     *
+     * @param inputs        are the lines the program reads
+     * @param args          are the command line args or null
+     * @param timeoutMillis is the time limit in milliseconds
+     * @return the outputs and the failure of this run or null if the program exceeded the time limit
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public Result run(List<String> inputs, String[] args, long timeoutMillis) throws InterruptedException {
+        return runWithTimeout(() -> run(inputs, args), timeoutMillis);
+    }
+
+    /**
+     * Runs the program on its own thread like {@link #run(List, String[], long)} and measures how long it takes to
+     * process each input like {@link #runTimed(List, String[], long[])}
+     *
+     * @param inputs        are the lines the program reads
+     * @param args          are the command line args or null
+     * @param inputNanos    receives the duration of each input in nanoseconds, it needs the size of the inputs
+     * @param timeoutMillis is the time limit in milliseconds
+     * @return the outputs and the failure of this run or null if the program exceeded the time limit
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public Result runTimed(List<String> inputs, String[] args, long[] inputNanos, long timeoutMillis)
+            throws InterruptedException {
+        return runWithTimeout(() -> runTimed(inputs, args, inputNanos), timeoutMillis);
+    }
+
+    private Result runWithTimeout(Supplier<Result> program, long timeoutMillis) throws InterruptedException {
+        Result[] result = new Result[1];
+        Thread run = new Thread(() -> result[0] = program.get(), "run " + mainMethod.getDeclaringClass().getName());
+        run.setDaemon(true);
+        run.setContextClassLoader(mainMethod.getDeclaringClass().getClassLoader());
+        run.start();
+        run.join(timeoutMillis);
+
+        if (run.isAlive()) {
+            run.interrupt();
+            return null;
+        }
+        return result[0];
+    }
+
+    /**
+     * Gets the inputs of test pairs followed by 'quit'
+     *
+     * @param testPairs are the pairs
+     * @return the inputs
+     */
+    public static List<String> inputsOf(List<TestPair> testPairs) {
+        List<String> inputs = new ArrayList<>(testPairs.size() + 1);
+        for (TestPair testPair : testPairs) {
+            inputs.add(testPair.getInput());
+        }
+        inputs.add("quit");
+        return inputs;
+    }
+
+    /**
+     * Hands out the inputs to the terminal and takes the time between the requests
+     */
+    private static final class InputClock implements Supplier<String> {
+        private final Iterator<String> inputs;
+        private final long[] inputNanos;
+        private int read = 0;
+        private long start;
+        private boolean isRunning = false;
+
+        InputClock(Iterator<String> inputs, long[] inputNanos) {
+            this.inputs = inputs;
+            this.inputNanos = inputNanos;
+        }
+
+        @Override
+        public String get() {
+            stop();
+            if (!inputs.hasNext()) {
+                return null;
+            }
+            read++;
+            isRunning = true;
+            start = System.nanoTime();
+            return inputs.next();
+        }
+
+        /**
+         * Ends the time of the current input
+         */
+        void stop() {
+            if (isRunning) {
+                inputNanos[read - 1] = System.nanoTime() - start;
+                isRunning = false;
+            }
+        }
+    }
+
+    /**
+     * The result of a single run
+     */
+    public static class Result {
+        private final List<String> outputs;
+        private final Throwable failure;
+
+        Result(List<String> outputs, Throwable failure) {
+            this.outputs = Collections.unmodifiableList(outputs);
+            this.failure = failure;
+        }
+
+        /**
+         * Gets the outputs of the program. The n-th output belongs to the n-th input. No output is {@code null}.
+         *
+         * @return the outputs of the program
+         */
+        public List<String> getOutputs() {
+            return outputs;
+        }
+
+        /**
+         * Gets whatever the program has thrown
+         *
+         * @return the throwable or null if the program terminated normally
+         */
+        public Throwable getFailure() {
+            return failure;
+        }
+
+        /**
+         * Counts how many of the given pairs are satisfied by this result
+         *
+         * @param testPairs are the pairs the inputs of this run came from
+         * @return the number of passed pairs
+         */
+        public int countPassed(List<TestPair> testPairs) {
+            int passed = 0;
+            for (int i = 0; i < testPairs.size() && i < outputs.size(); i++) {
+                if (testPairs.get(i).matches(outputs.get(i))) {
+                    passed++;
+                }
+            }
+            return passed;
+        }
+
+        /**
+         * Describes the first of the given pairs not satisfied by this result
+         *
+         * @param testPairs are the pairs the inputs of this run came from
+         * @return the fail message of the pair or null if all pairs are satisfied
+         */
+        public String describeFirstFailure(List<TestPair> testPairs) {
+            for (int i = 0; i < testPairs.size(); i++) {
+                if (i >= outputs.size()) {
+                    return "The program quitted after " + i + " of " + testPairs.size() + " inputs"
+                            + (failure == null ? "" : " with " + failure);
+                }
+                if (!testPairs.get(i).matches(outputs.get(i))) {
+                    return testPairs.get(i).getFailMessage(outputs.get(i));
+                }
+            }
+            return null;
+        }
+    }
+}
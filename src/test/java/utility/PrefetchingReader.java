@@ -0,0 +1,130 @@
+package utility;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A reader that reads ahead on its own thread.
+ * Expensive decoding like decompressing an io-file happens while the test processes the previous lines.
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+public class PrefetchingReader extends Reader {
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_CHUNKS_AHEAD = 16;
+    private static final char[] END_OF_STREAM = new char[0];
+
+    private final Reader source;
+    private final BlockingQueue<char[]> chunks = new ArrayBlockingQueue<>(MAX_CHUNKS_AHEAD);
+    private final Thread prefetcher;
+    private volatile Throwable failure;
+    private char[] chunk = new char[0];
+    private int position = 0;
+    private boolean isEndOfStream = false;
+
+    /**
+     * Starts reading ahead from a source
+     *
+     * @param source is the reader to read from. It is closed with this reader.
+     * @param name   is the name of the reading thread
+     */
+    public PrefetchingReader(Reader source, String name) {
+        this.source = source;
+        prefetcher = new Thread(this::prefetch, "prefetch " + name);
+        prefetcher.setDaemon(true);
+        prefetcher.start();
+    }
+
+    private void prefetch() {
+        boolean isClosed = false;
+        try {
+            while (true) {
+                char[] buffer = new char[CHUNK_SIZE];
+                int length = 0;
+                int read;
+                while (length < buffer.length && (read = source.read(buffer, length, buffer.length - length)) != -1) {
+                    length += read;
+                }
+                if (length == 0) {
+                    break;
+                }
+                chunks.put(length == buffer.length ? buffer : Arrays.copyOf(buffer, length));
+                if (length < buffer.length) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            //Closed before the end was read, so nobody waits for the end anymore
+            isClosed = true;
+        } catch (Throwable e) {
+            //Any failure of the decoder, e.g. of a corrupt stream, has to reach the reading thread
+            failure = e;
+        } finally {
+            if (!isClosed) {
+                putEndOfStream();
+            }
+        }
+    }
+
+    private void putEndOfStream() {
+        try {
+            chunks.put(END_OF_STREAM);
+        } catch (InterruptedException ignored) {
+            //Closed, so nobody waits for the end anymore
+        }
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (position == chunk.length) {
+            if (isEndOfStream || !nextChunk()) {
+                return -1;
+            }
+        }
+
+        int count = Math.min(length, chunk.length - position);
+        System.arraycopy(chunk, position, buffer, offset, count);
+        position += count;
+        return count;
+    }
+
+    private boolean nextChunk() throws IOException {
+        try {
+            chunk = chunks.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the prefetching thread");
+        }
+        position = 0;
+
+        if (chunk == END_OF_STREAM) {
+            isEndOfStream = true;
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            } else if (failure != null) {
+                throw new IOException("Reading ahead failed: " + failure, failure);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        prefetcher.interrupt();
+        try {
+            prefetcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        source.close();
+    }
+}
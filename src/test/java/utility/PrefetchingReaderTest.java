@@ -0,0 +1,56 @@
+package utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class PrefetchingReaderTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Test
+    void readsAllCharacters() throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            text.append(i).append('\n');
+        }
+
+        StringBuilder read = new StringBuilder();
+        try (PrefetchingReader reader = new PrefetchingReader(new StringReader(text.toString()), "test")) {
+            char[] buffer = new char[1000];
+            int length;
+            while ((length = reader.read(buffer)) != -1) {
+                read.append(buffer, 0, length);
+            }
+        }
+
+        assertEquals(text.toString(), read.toString());
+    }
+
+    @Test
+    void reportsRuntimeExceptionsOfTheSource() {
+        Reader failing = new Reader() {
+            @Override
+            public int read(char[] buffer, int offset, int length) {
+                throw new IllegalStateException("corrupt stream");
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        assertTimeoutPreemptively(TIMEOUT, () -> {
+            try (PrefetchingReader reader = new PrefetchingReader(failing, "test")) {
+                IOException e = assertThrows(IOException.class, () -> reader.read(new char[10]));
+                assertEquals(IllegalStateException.class, e.getCause().getClass());
+            }
+        });
+    }
+}
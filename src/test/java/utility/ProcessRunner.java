@@ -0,0 +1,276 @@
+package utility;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs a program as a child process and tests it over its standard input and output.
+ * This works for any program, e.g. programs reading {@code System.in} with a {@code Scanner} or prebuilt jars.
+ * <p>
+ * Java programs are started with the {@link PromptBridge}, which marks when the program waits for the next input.
+ * All inputs are written at once and the output is split at the marks, so there is no round trip per input.
+ * Other commands are split by idle detection: the next input is sent once the program printed nothing for a while.
+ * This is a lot slower and only reliable for programs answering every input at once.
+ * <p>
+ * The pipes are pumped by threads of a pool shared by all runners.
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+public class ProcessRunner {
+    public static final long DEFAULT_IDLE_MILLIS = 200;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final ExecutorService PUMPS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "process pump");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final List<String> command;
+    private final long idleMillis;
+
+    /**
+     * Creates a runner for a command
+     *
+     * @param command    is the command starting the program, without the command line args of a test
+     * @param idleMillis is the time without output after which an answer is complete or 0 if the program is
+     *                   started with the {@link PromptBridge}
+     */
+    public ProcessRunner(List<String> command, long idleMillis) {
+        this.command = Collections.unmodifiableList(new ArrayList<>(command));
+        this.idleMillis = idleMillis;
+    }
+
+    /**
+     * Creates a runner for a java program, which is started with the {@link PromptBridge}
+     *
+     * @param mainClass  is the binary name of the main class
+     * @param classPath  are the class directories and jars of the program
+     * @param jvmOptions are further options of the child JVM, like '-Xmx64m'
+     * @return the runner
+     */
+    public static ProcessRunner forJavaProgram(String mainClass, List<Path> classPath, String... jvmOptions) {
+        StringBuilder classPathValue = new StringBuilder();
+        for (Path path : classPath) {
+            classPathValue.append(path.toAbsolutePath()).append(File.pathSeparator);
+        }
+        classPathValue.append(frameworkLocation());
+
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Dfile.encoding=UTF-8");
+        command.addAll(Arrays.asList(jvmOptions));
+        command.addAll(Arrays.asList("-cp", classPathValue.toString(), PromptBridge.class.getName(), mainClass));
+        return new ProcessRunner(command, 0);
+    }
+
+    /**
+     * Creates a runner for any command, whose outputs are split by idle detection
+     *
+     * @param command is the command starting the program
+     * @return the runner
+     */
+    public static ProcessRunner forCommand(String... command) {
+        return new ProcessRunner(Arrays.asList(command), DEFAULT_IDLE_MILLIS);
+    }
+
+    private static String frameworkLocation() {
+        try {
+            return Paths.get(PromptBridge.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                    .toString();
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Unable to locate the test framework", e);
+        }
+    }
+
+    /**
+     * Runs the program with the given inputs.
+     * 'quit' isn't added automatically, so it should be the last input.
+     * Outputs before the program asks for the first input are ignored, as well as prompts like '> ', which are
+     * printed without a line break right before the program reads.
+     *
+     * @param inputs        are the lines the program reads
+     * @param args          are the command line args or null
+     * @param timeoutMillis is the time limit of the whole run
+     * @return the outputs of the inputs or null if the program exceeded the time limit.
+     * A program terminating with an exit code other than 0 has a failure.
+     * @throws IOException          if the program can't be started
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public IsolatedProgram.Result run(List<String> inputs, String[] args, long timeoutMillis)
+            throws IOException, InterruptedException {
+        List<String> fullCommand = new ArrayList<>(command);
+        if (args != null) {
+            fullCommand.addAll(Arrays.asList(args));
+        }
+        Process process = new ProcessBuilder(fullCommand).redirectErrorStream(true).start();
+        Writer in = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8),
+                BUFFER_SIZE);
+        Reader out = new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8);
+
+        try {
+            Future<List<String>> outputs;
+            if (idleMillis == 0) {
+                outputs = PUMPS.submit(() -> splitAtMarkers(new BufferedReader(out, BUFFER_SIZE)));
+                PUMPS.submit(() -> writeAll(in, inputs));
+            } else {
+                IdleSplitter splitter = new IdleSplitter(out);
+                outputs = PUMPS.submit(splitter);
+                PUMPS.submit(() -> writeWhenIdle(in, inputs, splitter));
+            }
+
+            if (!process.waitFor(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                return null;
+            }
+            List<String> result = outputs.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            Throwable failure = process.exitValue() == 0 ? null
+                    : new IllegalStateException("The program terminated with exit code " + process.exitValue());
+            return new IsolatedProgram.Result(result, failure);
+        } catch (ExecutionException e) {
+            throw new IOException("Unable to read the output of the program", e.getCause());
+        } catch (TimeoutException e) {
+            return null;
+        } finally {
+            process.destroyForcibly();
+        }
+    }
+
+    private static Void writeAll(Writer in, List<String> inputs) {
+        try (Writer writer = in) {
+            for (String input : inputs) {
+                writer.write(input);
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            //The program terminated before reading all inputs
+        }
+        return null;
+    }
+
+    /**
+     * Splits the output of a program started with the {@link PromptBridge} into the outputs of its inputs
+     */
+    private static List<String> splitAtMarkers(BufferedReader out) throws IOException {
+        List<String> outputs = new ArrayList<>();
+        StringBuilder current = null;
+        boolean isFirstInput = true;
+        String line;
+        while ((line = out.readLine()) != null) {
+            //A prompt printed without a line break precedes the marker. It isn't part of any output.
+            boolean isMarker = line.endsWith(PromptBridge.PROMPT_MARKER);
+            if (!isMarker) {
+                if (current == null) {
+                    current = new StringBuilder(line);
+                } else {
+                    current.append('\n').append(line);
+                }
+            }
+            if (isMarker) {
+                if (!isFirstInput) {
+                    outputs.add(current == null ? null : current.toString());
+                }
+                isFirstInput = false;
+                current = null;
+            }
+        }
+        if (!isFirstInput) {
+            outputs.add(current == null ? null : current.toString());
+        }
+        return outputs;
+    }
+
+    private Void writeWhenIdle(Writer in, List<String> inputs, IdleSplitter splitter) {
+        try (Writer writer = in) {
+            for (String input : inputs) {
+                splitter.awaitIdle(idleMillis);
+                splitter.nextOutput();
+                writer.write(input);
+                writer.write('\n');
+                writer.flush();
+            }
+        } catch (IOException e) {
+            //The program terminated before reading all inputs
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    /**
+     * Collects the output of a program and starts a new output whenever the next input is sent
+     */
+    private static final class IdleSplitter implements Callable<List<String>> {
+        private final Reader out;
+        private final List<String> outputs = new ArrayList<>();
+        private StringBuilder current = new StringBuilder();
+        private boolean isFirstInput = true;
+        private boolean isEnd = false;
+        private long lastOutputNanos = System.nanoTime();
+
+        IdleSplitter(Reader out) {
+            this.out = out;
+        }
+
+        @Override
+        public List<String> call() throws IOException {
+            char[] buffer = new char[BUFFER_SIZE];
+            int read;
+            while ((read = out.read(buffer)) != -1) {
+                synchronized (this) {
+                    current.append(buffer, 0, read);
+                    lastOutputNanos = System.nanoTime();
+                }
+            }
+            synchronized (this) {
+                nextOutput();
+                isEnd = true;
+                return outputs;
+            }
+        }
+
+        synchronized void awaitIdle(long idleMillis) throws InterruptedException {
+            long idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+            long waited;
+            while (!isEnd && (waited = System.nanoTime() - lastOutputNanos) < idleNanos) {
+                TimeUnit.NANOSECONDS.timedWait(this, idleNanos - waited);
+            }
+        }
+
+        synchronized void nextOutput() {
+            if (isEnd) {
+                return;
+            }
+            if (!isFirstInput) {
+                String output = current.toString();
+                if (output.endsWith("\n")) {
+                    output = output.substring(0, output.length() - 1);
+                }
+                outputs.add(output.isEmpty() ? null : output.replace("\r\n", "\n"));
+            }
+            isFirstInput = false;
+            current = new StringBuilder();
+            lastOutputNanos = System.nanoTime();
+        }
+    }
+}
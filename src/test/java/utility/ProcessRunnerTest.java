@@ -0,0 +1,154 @@
+package utility;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProcessRunnerTest {
+    private static final long TIMEOUT_MILLIS = 20000;
+    /**
+     * Longer than the start of the child JVM, so the idle splitter doesn't send inputs before the program answers
+     */
+    private static final long IDLE_MILLIS = 1000;
+    private static final String MAIN_CLASS = "sample.Echo";
+
+    private static Path directory;
+    private static Path classes;
+
+    @BeforeAll
+    static void compile() throws IOException {
+        directory = Files.createTempDirectory("process-runner");
+        classes = compileEcho(directory);
+    }
+
+    @AfterAll
+    static void deleteDirectory() throws IOException {
+        IOFileFixtures.delete(directory);
+    }
+
+    /**
+     * Compiles a program reading {@code System.in}, which answers each input in upper case.
+     * With the command line arg '--prompt' it greets and prints the prompt '> ' before each read.
+     * 'lines' prints two lines, 'silent' nothing, 'stop' ends the program without 'quit', 'crash' throws and 'hang'
+     * sleeps for a minute. 'quit' ends the program with the exit code of the system property 'echo.exit'.
+     *
+     * @param directory is the directory of the source and class files
+     * @return the class directory
+     * @throws IOException if the files can't be written
+     */
+    static Path compileEcho(Path directory) throws IOException {
+        Path classes = Files.createDirectory(directory.resolve("classes"));
+        Path source = IOFileFixtures.write(Files.createDirectory(directory.resolve("sample")).resolve("Echo.java"),
+                "package sample;",
+                "",
+                "import java.io.BufferedReader;",
+                "import java.io.InputStreamReader;",
+                "",
+                "public class Echo {",
+                "    public static void main(String[] args) throws Exception {",
+                "        boolean prompt = args.length > 0 && args[0].equals(\"--prompt\");",
+                "        if (prompt) {",
+                "            System.out.println(\"Welcome\");",
+                "        }",
+                "        BufferedReader in = new BufferedReader(new InputStreamReader(System.in));",
+                "        while (true) {",
+                "            if (prompt) {",
+                "                System.out.print(\"> \");",
+                "                System.out.flush();",
+                "            }",
+                "            String line = in.readLine();",
+                "            if (line == null || line.equals(\"quit\")) {",
+                "                System.exit(Integer.getInteger(\"echo.exit\", 0));",
+                "            }",
+                "            switch (line) {",
+                "                case \"lines\": System.out.println(\"first\"); System.out.println(\"second\"); break;",
+                "                case \"silent\": break;",
+                "                case \"stop\": return;",
+                "                case \"crash\": throw new IllegalStateException(\"boom\");",
+                "                case \"hang\": Thread.sleep(60000); break;",
+                "                default: System.out.println(line.toUpperCase());",
+                "            }",
+                "        }",
+                "    }",
+                "}");
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler.run(null, null, null, "-d", classes.toString(), source.toString()) != 0) {
+            throw new IllegalStateException("Unable to compile " + source);
+        }
+        return classes;
+    }
+
+    static ProcessRunner echoRunner(Path classes, String... jvmOptions) {
+        return ProcessRunner.forJavaProgram(MAIN_CLASS, Collections.singletonList(classes), jvmOptions);
+    }
+
+    @Test
+    void splitsAtMarkers() throws Exception {
+        IsolatedProgram.Result result = echoRunner(classes).run(Arrays.asList("a", "lines", "silent", "quit"),
+                new String[]{"--prompt"}, TIMEOUT_MILLIS);
+
+        assertNull(result.getFailure());
+        assertEquals(Arrays.asList("A", "first\nsecond", null, null), result.getOutputs());
+    }
+
+    @Test
+    void splitsWhenIdle() throws Exception {
+        List<String> command = Arrays.asList(Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", classes.toString(), MAIN_CLASS);
+        IsolatedProgram.Result result = new ProcessRunner(command, IDLE_MILLIS)
+                .run(Arrays.asList("a", "lines", "silent", "quit"), null, TIMEOUT_MILLIS);
+
+        assertNull(result.getFailure());
+        assertEquals(Arrays.asList("A", "first\nsecond", null, null), result.getOutputs());
+    }
+
+    @Test
+    void exceedsTimeLimit() throws Exception {
+        assertNull(echoRunner(classes).run(Arrays.asList("a", "hang", "quit"), null, 3000));
+    }
+
+    @Test
+    void stopsAtLastPrompt() throws Exception {
+        IsolatedProgram.Result result = echoRunner(classes).run(Arrays.asList("a", "stop", "b", "quit"), null,
+                TIMEOUT_MILLIS);
+
+        assertNull(result.getFailure());
+        assertEquals(Arrays.asList("A", null), result.getOutputs());
+    }
+
+    @Test
+    void reportsCrash() throws Exception {
+        IsolatedProgram.Result result = echoRunner(classes).run(Arrays.asList("a", "crash", "quit"), null,
+                TIMEOUT_MILLIS);
+
+        assertNotNull(result.getFailure());
+        assertTrue(result.getFailure().getMessage().endsWith("exit code 1"), result.getFailure().getMessage());
+        assertEquals(2, result.getOutputs().size());
+        assertTrue(result.getOutputs().get(1).startsWith("java.lang.IllegalStateException: boom"),
+                result.getOutputs().get(1));
+    }
+
+    @Test
+    void reportsExitCode() throws Exception {
+        IsolatedProgram.Result result = echoRunner(classes, "-Decho.exit=3").run(Arrays.asList("a", "quit"), null,
+                TIMEOUT_MILLIS);
+
+        assertEquals(Arrays.asList("A", null), result.getOutputs());
+        assertTrue(result.getFailure().getMessage().endsWith("exit code 3"), result.getFailure().getMessage());
+    }
+}
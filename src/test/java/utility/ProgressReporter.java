@@ -0,0 +1,113 @@
+package utility;
+
+import edu.kit.informatik.Terminal;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shows the progress of a running test from a background thread.
+ * The thread samples the counter of read inputs of the {@link Terminal} at a fixed interval and prints
+ * the progress, the throughput, the expected remaining time and the current input.
+ * So the tested program doesn't spend any time on formatting or printing the progress.
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+public final class ProgressReporter implements AutoCloseable {
+    public static final long DEFAULT_INTERVAL_MILLIS = 1000;
+    private static final int MAX_INPUT_LENGTH = 40;
+
+    private final long totalInputs;
+    private final PrintStream out;
+    private final ScheduledExecutorService sampler;
+    private final long startInputs;
+    private final long startNanos;
+    private long lastInputs;
+    private long lastNanos;
+
+    private ProgressReporter(long totalInputs, long intervalMillis, PrintStream out) {
+        this.totalInputs = totalInputs;
+        this.out = out;
+        startInputs = Terminal.getReadTestInputs();
+        startNanos = System.nanoTime();
+        lastInputs = startInputs;
+        lastNanos = startNanos;
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "test progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(this::report, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Starts reporting the progress every {@value #DEFAULT_INTERVAL_MILLIS} ms on {@code System.out}
+     *
+     * @param totalInputs is the number of inputs the test will read or -1 if it is unknown
+     * @return the running reporter, which has to be closed at the end of the test
+     */
+    public static ProgressReporter start(long totalInputs) {
+        return new ProgressReporter(totalInputs, DEFAULT_INTERVAL_MILLIS, System.out);
+    }
+
+    /**
+     * Starts reporting the progress
+     *
+     * @param totalInputs    is the number of inputs the test will read or -1 if it is unknown
+     * @param intervalMillis is the time between two reports
+     * @param out            is the stream to print the reports to
+     * @return the running reporter, which has to be closed at the end of the test
+     */
+    public static ProgressReporter start(long totalInputs, long intervalMillis, PrintStream out) {
+        return new ProgressReporter(totalInputs, intervalMillis, out);
+    }
+
+    /**
+     * Stops the reports and prints the final one
+     */
+    @Override
+    public void close() {
+        sampler.shutdownNow();
+        try {
+            sampler.awaitTermination(DEFAULT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        report();
+    }
+
+    private synchronized void report() {
+        long now = System.nanoTime();
+        long inputs = Terminal.getReadTestInputs() - startInputs;
+        double seconds = (now - lastNanos) / 1e9;
+        double inputsPerSecond = seconds > 0 ? (inputs - (lastInputs - startInputs)) / seconds : 0;
+        lastInputs = inputs + startInputs;
+        lastNanos = now;
+
+        StringBuilder report = new StringBuilder();
+        if (totalInputs > 0) {
+            report.append(String.format(Locale.ROOT, "%3d%% ", Math.min(100, inputs * 100 / totalInputs)));
+            report.append(inputs).append('/').append(totalInputs);
+        } else {
+            report.append(inputs);
+        }
+        report.append(String.format(Locale.ROOT, " inputs, %.0f inputs/s", inputsPerSecond));
+
+        double averagePerSecond = inputs / ((now - startNanos) / 1e9);
+        if (totalInputs > 0 && inputs < totalInputs && averagePerSecond > 0) {
+            report.append(String.format(Locale.ROOT, ", ETA %.1f s", (totalInputs - inputs) / averagePerSecond));
+        }
+
+        String input = Terminal.getCurrentTestInput();
+        if (input != null) {
+            report.append(", current input: '")
+                    .append(input.length() > MAX_INPUT_LENGTH ? input.substring(0, MAX_INPUT_LENGTH) + "..." : input)
+                    .append('\'');
+        }
+        out.println(report);
+    }
+}
@@ -0,0 +1,138 @@
+package utility;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Runs a program in a child process of a {@link ProcessRunner} and tells it when the program waits for the next input.
+ * {@code System.in} is replaced by a stream handing out one line per read. Before each line, when the program has
+ * printed everything for the previous input, {@link #PROMPT_MARKER} is written as line of its own.
+ * So the outputs of the inputs can be separated, even though all inputs are sent at once.
+ * {@code System.err} is merged into {@code System.out}, to keep the order of outputs and error messages.
+ * <p>
+ * Usage: {@code java utility.PromptBridge <main-class> [args...]}
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+public final class PromptBridge {
+    /**
+     * Written before the program gets its next input. It starts with the ASCII record separator, which programs
+     * don't print.
+     */
+    public static final String PROMPT_MARKER = "\u001E<next input>";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private PromptBridge() {
+        throw new AssertionError("Utility class constructor.");
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: java utility.PromptBridge <main-class> [args...]");
+            System.exit(2);
+        }
+
+        PrintStream out = newOutput();
+        System.setOut(out);
+        System.setErr(out);
+        System.setIn(new LineInputStream(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8),
+                BUFFER_SIZE), out));
+        //A program calling System.exit still gets all its output delivered
+        Runtime.getRuntime().addShutdownHook(new Thread(out::flush));
+
+        Method main = Class.forName(args[0]).getMethod("main", String[].class);
+        try {
+            main.invoke(null, (Object) Arrays.copyOfRange(args, 1, args.length));
+        } catch (InvocationTargetException e) {
+            e.getCause().printStackTrace(out);
+            out.flush();
+            System.exit(1);
+        }
+        out.flush();
+        System.exit(0);
+    }
+
+    private static PrintStream newOutput() throws UnsupportedEncodingException {
+        return new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), BUFFER_SIZE),
+                false, StandardCharsets.UTF_8.name());
+    }
+
+    /**
+     * Hands out the lines of the real input one after another and announces each line on the output
+     */
+    private static final class LineInputStream extends InputStream {
+        private final BufferedReader lines;
+        private final PrintStream out;
+        private byte[] line = new byte[0];
+        private int position = 0;
+        private boolean isEnd = false;
+
+        LineInputStream(BufferedReader lines, PrintStream out) {
+            this.lines = lines;
+            this.out = out;
+        }
+
+        @Override
+        public synchronized int read() throws IOException {
+            if (!nextLineIfNeeded()) {
+                return -1;
+            }
+            return line[position++] & 0xff;
+        }
+
+        @Override
+        public synchronized int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!nextLineIfNeeded()) {
+                return -1;
+            }
+            int count = Math.min(length, line.length - position);
+            System.arraycopy(line, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public synchronized int available() {
+            //Readers must not block for the next line, which is only announced when it is needed
+            return line.length - position;
+        }
+
+        /**
+         * @return false if there are no more lines
+         */
+        private boolean nextLineIfNeeded() throws IOException {
+            if (position < line.length) {
+                return true;
+            }
+            if (isEnd) {
+                return false;
+            }
+
+            out.println(PROMPT_MARKER);
+            out.flush();
+            String next = lines.readLine();
+            if (next == null) {
+                isEnd = true;
+                return false;
+            }
+            line = (next + "\n").getBytes(StandardCharsets.UTF_8);
+            position = 0;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package utility;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+/**
+ * Creates and measures a class-data-sharing archive of the classes a test JVM loads.
+ * A JVM started with this archive maps the already parsed and verified classes instead of loading them again,
+ * which makes the many short test and grader JVMs of a CI start faster.
+ * <p>
+ * Usage: {@code java -cp <class path> utility.StartupArchive create|measure [archive-dir] [runs]
+ * [--tests=<class-or-package>...]}
+ * <ul>
+ * <li>{@code create} packs the class directories of the class path into a jar (class-data-sharing only supports jars)
+ * and dumps the archive of a JVM that discovers and executes tests with the JUnit platform launcher, like a real
+ * test JVM. The options for reusing the archive are printed and written to the argument file 'jvm.options'.</li>
+ * <li>{@code measure} starts the same test JVM several times with and without the archive and reports the time
+ * saved.</li>
+ * </ul>
+ * The tests are selected by {@code --tests=} with the name of a test class or package and default to all tests of
+ * the class directories. Requires JDK 13 or newer and the JUnit platform launcher on the class path.
+ * <p>
+ * The archive also replaces preloading the hot classes of the framework: Its classes are already parsed and
+ * verified, while loading them on another thread of the test JVM would only compete with the tests needing them.
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+public final class StartupArchive {
+    public static final String DEFAULT_DIRECTORY = "startup-archive";
+    private static final String ARCHIVE = "framework.jsa";
+    private static final String CLASSES_JAR = "classes.jar";
+    private static final String OPTIONS = "jvm.options";
+    /**
+     * The class path and the tests of the archived JVM, so 'measure' starts the same JVM
+     */
+    private static final String SETTINGS = "archive.properties";
+    private static final String CLASS_PATH_SETTING = "classPath";
+    private static final String TESTS_SETTING = "tests";
+    private static final String TESTS_OPTION = "--tests=";
+    private static final String WARMUP = "warmup";
+
+    private StartupArchive() {
+        throw new AssertionError("Utility class constructor.");
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals(WARMUP)) {
+            warmup(Arrays.copyOfRange(args, 1, args.length));
+            //Threads started by the tests must not keep the JVM from dumping the archive
+            System.exit(0);
+        }
+
+        List<String> tests = new ArrayList<>();
+        List<String> positional = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith(TESTS_OPTION)) {
+                tests.add(value(arg));
+            } else {
+                positional.add(arg);
+            }
+        }
+        if (positional.isEmpty()) {
+            System.err.println("Usage: java utility.StartupArchive create|measure [archive-dir] [runs]"
+                    + " [--tests=<class-or-package>...]");
+            System.exit(2);
+        }
+
+        Path directory = Paths.get(positional.size() > 1 ? positional.get(1) : DEFAULT_DIRECTORY);
+        switch (positional.get(0)) {
+            case "create":
+                create(directory, tests);
+                break;
+            case "measure":
+                measure(directory, positional.size() > 2 ? Integer.parseInt(positional.get(2)) : 10);
+                break;
+            default:
+                System.err.println("Unknown mode '" + positional.get(0) + "'");
+                System.exit(2);
+        }
+    }
+
+    private static String value(String option) {
+        return option.substring(option.indexOf('=') + 1);
+    }
+
+    /**
+     * The workload of the archived JVM: Discovering and executing tests with the JUnit platform launcher.
+     * The launcher is used by reflection, because the framework itself only needs the JUnit API.
+     *
+     * @param tests are jars or directories of test classes, test classes or packages
+     */
+    static void warmup(String[] tests) throws ReflectiveOperationException {
+        Class<?> selectors = Class.forName("org.junit.platform.engine.discovery.DiscoverySelectors");
+        Class<?> selectorType = Class.forName("org.junit.platform.engine.DiscoverySelector");
+        List<Object> selectorList = new ArrayList<>();
+        for (String test : tests) {
+            selectorList.addAll(selectorsOf(selectors, test));
+        }
+        Object selected = Array.newInstance(selectorType, selectorList.size());
+        for (int i = 0; i < selectorList.size(); i++) {
+            Array.set(selected, i, selectorList.get(i));
+        }
+
+        Class<?> builder = Class.forName("org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder");
+        Object request = builder.getMethod("request").invoke(null);
+        builder.getMethod("selectors", selected.getClass()).invoke(request, selected);
+        Object discoveryRequest = builder.getMethod("build").invoke(request);
+
+        Object launcher = Class.forName("org.junit.platform.launcher.core.LauncherFactory")
+                .getMethod("create").invoke(null);
+        Class<?> listenerType = Class.forName("org.junit.platform.launcher.TestExecutionListener");
+        Method execute = Class.forName("org.junit.platform.launcher.Launcher").getMethod("execute",
+                Class.forName("org.junit.platform.launcher.LauncherDiscoveryRequest"),
+                Array.newInstance(listenerType, 0).getClass());
+        execute.invoke(launcher, discoveryRequest, Array.newInstance(listenerType, 0));
+    }
+
+    /**
+     * Gets the selectors of a test. A jar or directory has a selector for each of its class path roots.
+     */
+    private static List<?> selectorsOf(Class<?> selectors, String test) throws ReflectiveOperationException {
+        Path path = Paths.get(test);
+        if (test.endsWith(".jar") || Files.isDirectory(path)) {
+            return (List<?>) selectors.getMethod("selectClasspathRoots", Set.class)
+                    .invoke(null, Collections.singleton(path));
+        }
+        try {
+            Class.forName(test, false, StartupArchive.class.getClassLoader());
+            return Collections.singletonList(selectors.getMethod("selectClass", String.class).invoke(null, test));
+        } catch (ClassNotFoundException e) {
+            return Collections.singletonList(selectors.getMethod("selectPackage", String.class).invoke(null, test));
+        }
+    }
+
+    /**
+     * Creates the archive and the jar of the class directories
+     *
+     * @param directory is the directory to put the archive into
+     * @param tests     are the test classes or packages to run while dumping, or empty for all tests of the
+     *                  class directories
+     * @throws IOException          if the jar can't be written
+     * @throws InterruptedException if waiting for the dumping JVM is interrupted
+     */
+    public static void create(Path directory, List<String> tests) throws IOException, InterruptedException {
+        checkJavaVersion();
+        checkLauncher();
+        Files.createDirectories(directory);
+        Path jar = directory.resolve(CLASSES_JAR).toAbsolutePath();
+        Path archive = directory.resolve(ARCHIVE).toAbsolutePath();
+        Files.deleteIfExists(archive);
+
+        List<String> classPath = new ArrayList<>();
+        List<Path> classDirectories = new ArrayList<>();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            Path path = Paths.get(entry).toAbsolutePath();
+            if (Files.isDirectory(path)) {
+                if (classDirectories.isEmpty()) {
+                    classPath.add(jar.toString());
+                }
+                classDirectories.add(path);
+            } else if (Files.exists(path)) {
+                classPath.add(path.toString());
+            }
+        }
+        packClassDirectories(classDirectories, jar);
+        String joinedClassPath = String.join(File.pathSeparator, classPath);
+        List<String> selectedTests = tests.isEmpty() ? Collections.singletonList(jar.toString()) : tests;
+
+        Properties settings = new Properties();
+        settings.setProperty(CLASS_PATH_SETTING, joinedClassPath);
+        settings.setProperty(TESTS_SETTING, String.join("\n", selectedTests));
+        try (OutputStream out = Files.newOutputStream(directory.resolve(SETTINGS))) {
+            settings.store(out, "The test JVM of the archive");
+        }
+
+        int exitCode = startJVM("-XX:ArchiveClassesAtExit=" + archive, joinedClassPath, selectedTests, false);
+        if (!Files.exists(archive)) {
+            System.err.println("Dumping the archive failed with exit code " + exitCode);
+            System.exit(1);
+        }
+        if (exitCode != 0) {
+            //A test calling System.exit ends the JVM early, the archive is dumped anyway
+            System.err.println("The tests ended with exit code " + exitCode + ", so the archive may miss classes");
+        }
+
+        //An argument file keeps paths containing spaces intact
+        List<String> options = Arrays.asList(quote("-XX:SharedArchiveFile=" + archive), "-cp", quote(joinedClassPath));
+        Path optionsFile = directory.resolve(OPTIONS).toAbsolutePath();
+        Files.write(optionsFile, options, StandardCharsets.UTF_8);
+        System.out.println("Created '" + archive + "'. Start test JVMs with:");
+        System.out.println("java \"@" + optionsFile + "\" ...");
+    }
+
+    /**
+     * Quotes an argument for a java argument file, in which a backslash within quotes escapes the next character
+     */
+    private static String quote(String argument) {
+        return '"' + argument.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    /**
+     * Measures the startup and test run of the archived JVM with and without the archive
+     *
+     * @param directory is the directory containing the archive
+     * @param runs      is the number of JVMs started for each variant
+     * @throws IOException          if the archive doesn't exist
+     * @throws InterruptedException if waiting for a JVM is interrupted
+     */
+    public static void measure(Path directory, int runs) throws IOException, InterruptedException {
+        checkJavaVersion();
+        Path archive = directory.resolve(ARCHIVE).toAbsolutePath();
+        Path settingsFile = directory.resolve(SETTINGS);
+        if (!Files.exists(archive) || !Files.exists(settingsFile)) {
+            System.err.println("There is no archive in '" + directory + "'. Run 'create' first.");
+            System.exit(1);
+        }
+        Properties settings = new Properties();
+        try (InputStream in = Files.newInputStream(settingsFile)) {
+            settings.load(in);
+        }
+        String classPath = settings.getProperty(CLASS_PATH_SETTING);
+        List<String> tests = Arrays.asList(settings.getProperty(TESTS_SETTING).split("\n"));
+
+        //The first start of each variant warms the file system caches
+        startJVM("-Xshare:auto", classPath, tests, true);
+        startJVM("-XX:SharedArchiveFile=" + archive, classPath, tests, true);
+
+        long withoutArchive = 0;
+        long withArchive = 0;
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            startJVM("-Xshare:auto", classPath, tests, true);
+            long middle = System.nanoTime();
+            startJVM("-XX:SharedArchiveFile=" + archive, classPath, tests, true);
+            withArchive += System.nanoTime() - middle;
+            withoutArchive += middle - start;
+        }
+
+        double without = withoutArchive / 1e6 / runs;
+        double with = withArchive / 1e6 / runs;
+        System.out.printf(Locale.ROOT, "Test JVM without archive: %.1f ms%n", without);
+        System.out.printf(Locale.ROOT, "Test JVM with archive:    %.1f ms%n", with);
+        System.out.printf(Locale.ROOT, "Saved per JVM:            %.1f ms (%.0f%%)%n", without - with,
+                (without - with) / without * 100);
+    }
+
+    private static int startJVM(String option, String classPath, List<String> tests, boolean isQuiet)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(Arrays.asList(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                option, "-Xlog:cds=off", "-cp", classPath, StartupArchive.class.getName(), WARMUP));
+        command.addAll(tests);
+        ProcessBuilder builder = new ProcessBuilder(command).inheritIO();
+        if (isQuiet) {
+            //The output of the tests would only disturb the measurement
+            builder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        }
+        return builder.start().waitFor();
+    }
+
+    private static void checkJavaVersion() {
+        String version = System.getProperty("java.specification.version");
+        if (version.startsWith("1.") || Integer.parseInt(version) < 13) {
+            System.err.println("Dynamic class-data-sharing archives require JDK 13 or newer, but this is " + version);
+            System.exit(1);
+        }
+    }
+
+    private static void checkLauncher() {
+        try {
+            Class.forName("org.junit.platform.launcher.core.LauncherFactory");
+        } catch (ClassNotFoundException e) {
+            System.err.println("The JUnit platform launcher (junit-platform-launcher) has to be on the class path");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Packs all class directories into a single jar. Files of earlier directories take precedence.
+     */
+    private static void packClassDirectories(List<Path> directories, Path jar) throws IOException {
+        Set<String> written = new HashSet<>();
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            for (Path directory : directories) {
+                Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                        String name = directory.relativize(file).toString().replace(File.separatorChar, '/');
+                        if (written.add(name)) {
+                            writeEntry(out, name, file);
+                        }
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            }
+        }
+    }
+
+    private static void writeEntry(JarOutputStream out, String name, Path file) throws IOException {
+        out.putNextEntry(new JarEntry(name));
+        Files.copy(file, (OutputStream) out);
+        out.closeEntry();
+    }
+}
@@ -0,0 +1,59 @@
+package utility;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StartupArchiveTest {
+    private static final String RAN_PROPERTY = "utility.StartupArchiveTest.ran";
+
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("startup-archive");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        System.clearProperty(RAN_PROPERTY);
+        IOFileFixtures.delete(directory);
+    }
+
+    @Test
+    void runsTestsOfDirectory() throws Exception {
+        Path classes = Files.createDirectory(directory.resolve("classes"));
+        Path source = IOFileFixtures.write(directory.resolve("WarmupSample.java"),
+                "public class WarmupSample {",
+                "    @org.junit.jupiter.api.Test",
+                "    void run() {",
+                "        System.setProperty(\"" + RAN_PROPERTY + "\", \"true\");",
+                "    }",
+                "}");
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, null, null, "-d", classes.toString(),
+                "-cp", System.getProperty("java.class.path"), source.toString()));
+
+        //The launcher loads the classes of a class path root with the context class loader
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, previous)) {
+            thread.setContextClassLoader(loader);
+            StartupArchive.warmup(new String[]{classes.toString()});
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+
+        assertEquals("true", System.getProperty(RAN_PROPERTY));
+    }
+}
@@ -0,0 +1,123 @@
+package utility;
+
+import edu.kit.informatik.Terminal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+/**
+ * A class loader for a single run of a tested program.
+ * Classes of the program are loaded child-first, so every loader has its own copy of all static values.
+ * This allows running many programs (or the same program many times) concurrently in one JVM.
+ * <p>
+ * The {@link Terminal} class is always taken from this framework, even if the program brings its own copy.
+ * That way the output of every program is redirected to the test.
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+public class SubmissionClassLoader extends URLClassLoader {
+    private static final String TERMINAL_CLASS_NAME = Terminal.class.getName();
+    private static final String[] PARENT_FIRST_PREFIXES = {"java.", "javax.", "jdk.", "sun.", "utility."};
+
+    static {
+        registerAsParallelCapable();
+    }
+
+    /**
+     * Creates a new loader for a program
+     *
+     * @param urls   are the class directories and jars of the program
+     * @param parent is the loader used for everything the program doesn't contain itself
+     */
+    public SubmissionClassLoader(URL[] urls, ClassLoader parent) {
+        super(urls, parent);
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loaded = findLoadedClass(name);
+            if (loaded == null) {
+                if (isTerminalClass(name)) {
+                    loaded = defineFrameworkClass(name);
+                } else if (!isParentFirst(name)) {
+                    try {
+                        loaded = findClass(name);
+                    } catch (ClassNotFoundException ignored) {
+                        //Not part of the program, so the parent has to know it
+                    }
+                }
+                if (loaded == null) {
+                    loaded = super.loadClass(name, false);
+                }
+            }
+            if (resolve) {
+                resolveClass(loaded);
+            }
+            return loaded;
+        }
+    }
+
+    /**
+     * Checks whether the given class is the framework's terminal or one of its nested classes
+     *
+     * @param name is the binary name of the class
+     * @return true if the class is part of the terminal
+     */
+    protected static boolean isTerminalClass(String name) {
+        return name.equals(TERMINAL_CLASS_NAME) || name.startsWith(TERMINAL_CLASS_NAME + "$");
+    }
+
+    /**
+     * Checks whether a class has to be shared with the framework, so it is never loaded from the program
+     *
+     * @param name is the binary name of the class
+     * @return true if the parent has to load the class
+     */
+    static boolean isParentFirst(String name) {
+        for (String prefix : PARENT_FIRST_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Defines a fresh copy of a framework class in this loader
+     */
+    private Class<?> defineFrameworkClass(String name) throws ClassNotFoundException {
+        byte[] bytes = readFrameworkClass(name);
+        return defineClass(name, bytes, 0, bytes.length);
+    }
+
+    /**
+     * Reads the class file of a class visible to the framework
+     *
+     * @param name is the binary name of the class
+     * @return the bytes of the class file
+     * @throws ClassNotFoundException if there is no such class file
+     */
+    static byte[] readFrameworkClass(String name) throws ClassNotFoundException {
+        String resource = name.replace('.', '/') + ".class";
+        try (InputStream in = Terminal.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new ClassNotFoundException(name);
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package utility;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Parses all io-files of a suite concurrently before the tests need them.
+ * The io-files are parsed by the common fork-join pool. Big io-files are split into chunks at inputs outside of
+ * blocks, and the chunks are parsed in parallel as well.
+ * {@link TestBase} takes the pairs of a preloaded io-file from here instead of reading the file again.
+ * Each io-file is handed out only once, so its pairs are freed after its test.
+ * <p>
+ * Io-files bigger than {@value #MAX_BYTES} bytes or expanding to more than {@value #MAX_PAIRS} pairs aren't
+ * preloaded, the tests stream them as usual instead of keeping all their pairs in memory.
+ * <p>
+ * The directories to preload are passed with '{@code -D}{@value #PRELOAD_PROPERTY}{@code =<dir>[:<dir>...]}'
+ * or by calling {@link #start(Path...)} in the {@code @BeforeAll} method of a test.
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+public final class SuitePreloader {
+    /**
+     * The system property containing the directories to preload, separated by the path separator
+     */
+    public static final String PRELOAD_PROPERTY = "utility.preload";
+    /**
+     * Io-files of at least this size are split into chunks
+     */
+    private static final long SPLIT_BYTES = 1 << 20;
+    /**
+     * Io-files bigger than this aren't preloaded
+     */
+    private static final long MAX_BYTES = 1 << 26;
+    /**
+     * Io-files with more pairs than this aren't preloaded
+     */
+    private static final long MAX_PAIRS = 1 << 20;
+    static final int CHUNK_CHARS = 1 << 20;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Map<Path, ForkJoinTask<List<TestPair>>> PARSED = new ConcurrentHashMap<>();
+    private static final Set<Path> STARTED_DIRECTORIES = ConcurrentHashMap.newKeySet();
+
+    private SuitePreloader() {
+        throw new AssertionError("Utility class constructor.");
+    }
+
+    /**
+     * Starts preloading the directories of the system property {@value #PRELOAD_PROPERTY}, if it is set
+     */
+    public static void startFromProperty() {
+        String directories = System.getProperty(PRELOAD_PROPERTY);
+        if (directories == null || directories.trim().isEmpty()) {
+            return;
+        }
+        List<Path> paths = new ArrayList<>();
+        for (String directory : directories.split(File.pathSeparator)) {
+            paths.add(Paths.get(directory.trim()));
+        }
+        start(paths.toArray(new Path[0]));
+    }
+
+    /**
+     * Starts parsing all io-files below the given directories in the background.
+     * Directories and io-files that are already preloaded are skipped.
+     *
+     * @param directories are the directories containing the io-files
+     */
+    public static void start(Path... directories) {
+        for (Path directory : directories) {
+            if (!STARTED_DIRECTORIES.add(keyOf(directory))) {
+                continue;
+            }
+            try {
+                for (Path ioFile : BatchGrader.listIOFiles(directory)) {
+                    PARSED.computeIfAbsent(keyOf(ioFile),
+                            file -> ForkJoinPool.commonPool().submit(new ParseFile(file)));
+                }
+            } catch (IOException | UncheckedIOException e) {
+                //The tests report the missing io-files themselves
+                STARTED_DIRECTORIES.remove(keyOf(directory));
+            }
+        }
+    }
+
+    /**
+     * Takes the pairs of a preloaded io-file and waits if it is still parsed.
+     * The pairs are only handed out once, later calls for the same io-file return null.
+     *
+     * @param ioFile is the path of the io-file
+     * @return the unmodifiable pairs or null if the io-file isn't preloaded, too big or couldn't be parsed
+     */
+    public static List<TestPair> get(Path ioFile) {
+        ForkJoinTask<List<TestPair>> task = PARSED.remove(keyOf(ioFile));
+        if (task == null) {
+            return null;
+        }
+        try {
+            return task.join();
+        } catch (RuntimeException e) {
+            //Parsing the io-file again reports the error
+            return null;
+        }
+    }
+
+    /**
+     * Forgets all preloaded io-files
+     */
+    public static void clear() {
+        PARSED.clear();
+        STARTED_DIRECTORIES.clear();
+    }
+
+    private static Path keyOf(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Parses a whole io-file, in chunks if it is big. The result is null if the io-file is too big.
+     */
+    private static final class ParseFile extends RecursiveTask<List<TestPair>> {
+        private static final long serialVersionUID = 1L;
+
+        private final Path ioFile;
+
+        ParseFile(Path ioFile) {
+            this.ioFile = ioFile;
+        }
+
+        @Override
+        protected List<TestPair> compute() {
+            try {
+                long bytes = Files.size(ioFile);
+                //Counting doesn't expand blocks, so it's cheap even for huge generated io-files
+                if (bytes > MAX_BYTES || IOFileParser.count(ioFile) > MAX_PAIRS) {
+                    return null;
+                }
+                if (bytes < SPLIT_BYTES) {
+                    return Collections.unmodifiableList(IOFileParser.parse(ioFile));
+                }
+
+                String text = readFully(ioFile);
+                List<ParseChunk> chunks = new ArrayList<>();
+                List<Integer> starts = chunkStarts(text);
+                for (int i = 0; i < starts.size(); i++) {
+                    int end = i + 1 < starts.size() ? starts.get(i + 1) : text.length();
+                    chunks.add(new ParseChunk(text.substring(starts.get(i), end)));
+                }
+                try {
+                    invokeAll(chunks);
+                } catch (UncheckedIOException e) {
+                    //Parsing the whole file puts the right line number into the message
+                    return Collections.unmodifiableList(IOFileParser.parse(ioFile));
+                }
+
+                int size = 0;
+                for (ParseChunk chunk : chunks) {
+                    size += chunk.getRawResult().size();
+                }
+                List<TestPair> pairs = new ArrayList<>(size);
+                for (ParseChunk chunk : chunks) {
+                    pairs.addAll(chunk.getRawResult());
+                }
+                return Collections.unmodifiableList(pairs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Parses a part of an io-file starting with an input
+     */
+    private static final class ParseChunk extends RecursiveTask<List<TestPair>> {
+        private static final long serialVersionUID = 1L;
+
+        private final String text;
+
+        ParseChunk(String text) {
+            this.text = text;
+        }
+
+        @Override
+        protected List<TestPair> compute() {
+            try {
+                return IOFileParser.parse(new BufferedReader(new StringReader(text)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private static String readFully(Path ioFile) throws IOException {
+        StringBuilder text = new StringBuilder((int) Math.min(Integer.MAX_VALUE - 8, Files.size(ioFile)));
+        try (BufferedReader reader = IOFileParser.newReader(ioFile)) {
+            char[] buffer = new char[BUFFER_SIZE];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                text.append(buffer, 0, read);
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Finds where the chunks of an io-file start: At the first input and then at the first input outside of blocks
+     * after every {@value #CHUNK_CHARS} characters. The comment at the start of the io-file isn't part of any chunk.
+     *
+     * @param text is the content of the io-file
+     * @return the offsets of the chunks
+     */
+    static List<Integer> chunkStarts(String text) {
+        List<Integer> starts = new ArrayList<>();
+        boolean isFileStart = true;
+        int depth = 0;
+        int nextStart = 0;
+        int position = 0;
+        while (position < text.length()) {
+            int end = text.indexOf('\n', position);
+            if (end < 0) {
+                end = text.length();
+            }
+
+            if (text.startsWith(IOFileParser.INPUT_LINE_PREFIX, position)) {
+                if (isFileStart || depth == 0 && position >= nextStart) {
+                    starts.add(position);
+                    nextStart = position + CHUNK_CHARS;
+                    isFileStart = false;
+                }
+            } else if (text.startsWith(IOFileReader.REPEAT_DIRECTIVE, position)
+                    || text.startsWith(IOFileReader.FOR_DIRECTIVE, position)) {
+                if (isFileStart) {
+                    starts.add(position);
+                    nextStart = position + CHUNK_CHARS;
+                    isFileStart = false;
+                }
+                depth++;
+            } else if (!isFileStart && depth > 0 && isBlockEnd(text, position, end)) {
+                depth--;
+            }
+            position = end + 1;
+        }
+        return starts;
+    }
+
+    /**
+     * Checks whether a line is '{@code #end}' with optional whitespace, without copying the line
+     */
+    private static boolean isBlockEnd(String text, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end - start == IOFileReader.END_DIRECTIVE.length()
+                && text.startsWith(IOFileReader.END_DIRECTIVE, start);
+    }
+}
@@ -0,0 +1,86 @@
+package utility;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class SuitePreloaderTest {
+    private static final String NESTED_BLOCKS = "#repeat 2\n#for i 0..1\n> add ${i}\nOK\n#end\n> print\n"
+            + "#unordered\n#end\n";
+
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("suite-preloader");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        SuitePreloader.clear();
+        IOFileFixtures.delete(directory);
+    }
+
+    @Test
+    void splitsOnlyOutsideOfBlocks() throws IOException {
+        StringBuilder text = new StringBuilder("comment\n> first\n");
+        int firstStart = text.indexOf("> first");
+        while (text.length() < firstStart + SuitePreloader.CHUNK_CHARS - NESTED_BLOCKS.length() / 2) {
+            text.append("> add 1\nOK\n");
+        }
+        //The nested blocks span the end of the first chunk, so the second chunk starts after them
+        text.append(NESTED_BLOCKS);
+        int secondStart = text.length();
+        text.append("> quit\n");
+
+        List<Integer> starts = SuitePreloader.chunkStarts(text.toString());
+
+        assertEquals(Arrays.asList(firstStart, secondStart), starts);
+        List<TestPair> chunkPairs = new ArrayList<>();
+        for (int i = 0; i < starts.size(); i++) {
+            int end = i + 1 < starts.size() ? starts.get(i + 1) : text.length();
+            chunkPairs.addAll(parse(text.substring(starts.get(i), end)));
+        }
+        assertEquals(parse(text.toString()), chunkPairs);
+    }
+
+    @Test
+    void startsAtLeadingBlock() {
+        assertEquals(Arrays.asList(8), SuitePreloader.chunkStarts("comment\n" + NESTED_BLOCKS + "> quit\n"));
+    }
+
+    @Test
+    void handsOutPairsOnce() throws IOException {
+        Path ioFile = IOFileFixtures.write(directory.resolve("test.io"), "> add 1", "OK", "> print", "1");
+
+        SuitePreloader.start(directory);
+
+        assertEquals(IOFileParser.parse(ioFile), SuitePreloader.get(ioFile));
+        assertNull(SuitePreloader.get(ioFile));
+    }
+
+    @Test
+    void skipsIOFilesWithTooManyPairs() throws IOException {
+        Path ioFile = IOFileFixtures.write(directory.resolve("test.io"), "#repeat 2000000", "> add 1", "OK", "#end");
+
+        SuitePreloader.start(directory);
+
+        assertNull(SuitePreloader.get(ioFile));
+    }
+
+    private static List<TestPair> parse(String text) throws IOException {
+        return IOFileParser.parse(new BufferedReader(new StringReader(text)));
+    }
+}
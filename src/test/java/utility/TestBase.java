@@ -4,9 +4,15 @@ import edu.kit.informatik.Terminal;
 
 import java.io.*;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Supplier;
 import java.util.logging.Handler;
 import java.util.logging.LogRecord;
 import java.util.logging.Logger;
@@ -31,22 +37,29 @@ import static org.junit.jupiter.api.Assertions.fail;
 public abstract class TestBase {
     public static final String ERROR_PREFIX = "Error, ";
     public static final String IO_FILE_COMMAND_LINE_ARGS_PREFIX = Terminal.IO_FILE_COMMAND_LINE_ARGS_PREFIX;
+    public static final String IO_FILE_HASH_PREFIX = Terminal.IO_FILE_HASH_PREFIX;
     protected Logger log;
     protected boolean testPassed = false;
-    protected static int numFailedTests = 0;
-    protected static int numSucceededTests = 0;
 
-    private List<LogRecord> logData = new ArrayList<>(100);
+    private static final int MAX_LOG_RECORDS = 1000;
+    private static final long PROCESS_TIMEOUT_MILLIS = 60 * 1000;
+
+    private Deque<LogRecord> logData = new ArrayDeque<>(100);
+    private int omittedLogRecords = 0;
     private String testName;
     private boolean alwaysShowLog;
     private boolean showAllProgramOutput = false;
     private boolean showTestProgress;
+    private boolean isMeasuring = false;
+    private long statsTestId;
 
     /**
      * Initializes testing
      */
     @BeforeAll
     public static void initAll() {
+        GradingStats.register();
+        SuitePreloader.startFromProperty();
         Terminal.isTest = true;
     }
 
@@ -67,6 +80,11 @@ public abstract class TestBase {
         log.addHandler(new Handler() {
             @Override
             public void publish(LogRecord record) {
+                if (logData.size() == MAX_LOG_RECORDS) {
+                    //Long tests only keep the latest messages
+                    logData.pollFirst();
+                    omittedLogRecords++;
+                }
                 logData.add(record);
             }
 
@@ -81,6 +99,7 @@ public abstract class TestBase {
             }
         });
         log.info("Running test '" + getTestName(testInfo) + "' ...\n");
+        statsTestId = GradingStats.INSTANCE.testStarted(getTestName(testInfo));
     }
 
     /**
@@ -99,11 +118,7 @@ public abstract class TestBase {
      */
     @AfterEach
     protected void cleanUp() {
-        if (testPassed) {
-            numSucceededTests++;
-        } else {
-            numFailedTests++;
-        }
+        GradingStats.INSTANCE.testFinished(statsTestId, testPassed);
 
         if (showAllProgramOutput && !testPassed && !Terminal.OUT_TEST.isEmpty()) {
             System.out.println("The output after that was:");
@@ -125,12 +140,17 @@ public abstract class TestBase {
         if (alwaysShowLog)
             printLog();
         logData.clear();
+        omittedLogRecords = 0;
     }
 
     /**
      * Prints the current log
      */
     private void printLog() {
+        if (omittedLogRecords > 0) {
+            System.out.println("(" + omittedLogRecords + " earlier log messages omitted)");
+            omittedLogRecords = 0;
+        }
         for (LogRecord logRecord : logData) {
             System.out.print(logRecord.getMessage());
         }
@@ -190,85 +210,330 @@ public abstract class TestBase {
      */
     protected void testUsingPairs(TestPair[] testPairs, Runnable testedMethod) {
         log.info("Testing using " + testPairs.length + " pairs...\n");
+        testUsingPairs(Arrays.asList(testPairs).iterator(), testPairs.length, testedMethod);
+    }
+
+    /**
+     * Tests a specified program using TestPairs provided one after another.
+     * 'quit' is automatically added as input to the end
+     * <p>
+     * An input is only taken from the iterator when the program asks for it, and the outputs are checked as soon as
+     * the program asks for the next input. So the pairs never have to be in memory at once.
+     * A failure is thrown after the program ended. If {@link #enableShowAllProgramOutput()} was called, the
+     * program gets the remaining inputs after a failure, so its outputs after that can be shown.
+     *
+     * @param testPairs    provides the testPairs
+     * @param pairCount    is the number of pairs (used to show the progress) or -1 if it is unknown
+     * @param testedMethod is a reference to a tested program
+     */
+    protected void testUsingPairs(Iterator<TestPair> testPairs, long pairCount, Runnable testedMethod) {
+        //The output of 'quit' is left over if the same test runs the program several times
+        Terminal.OUT_TEST.clear();
+        PairFeeder feeder = new PairFeeder(testPairs);
+        //'quit' is read as well
+        ProgressReporter progress = showTestProgress ? ProgressReporter.start(pairCount < 0 ? -1 : pairCount + 1)
+                : null;
+        Terminal.testInputSource = feeder;
+        try {
+            testedMethod.run();
+        } finally {
+            Terminal.testInputSource = null;
+            if (progress != null) {
+                progress.close();
+            }
+        }
 
-        for (TestPair testPair : testPairs) {
-            pushProgramInput(testPair.getInput());
+        if (feeder.failure instanceof Error) {
+            throw (Error) feeder.failure;
+        } else if (feeder.failure instanceof RuntimeException) {
+            throw (RuntimeException) feeder.failure;
+        }
+        feeder.checkCompletedOutputs();
+        if (!feeder.pendingPairs.isEmpty()) {
+            failAndLog("Found no more output. There is some serious issue!");
+        }
+        if (testPairs.hasNext()) {
+            failAndLog("The program quitted too early\n"
+                    + "Please check that your program resets all static values!");
         }
 
-        pushProgramInput("quit");
-        Terminal.setupShowProgress(showTestProgress, Terminal.IN_TEST.size());
-        testedMethod.run();
+        log.info("Test successfully completed.\n");
+        testPassed = true;
+    }
 
-        for (TestPair testPair : testPairs) {
+    /**
+     * Checks a single output of the program
+     *
+     * @param testPair      is the pair the output belongs to
+     * @param programOutput is the output of the program or null if there was none
+     */
+    private void checkOutput(TestPair testPair, StringBuilder programOutput) {
+        //Timed tests only log failures, so the measurement doesn't include formatting every pair
+        if (!isMeasuring) {
             log.info("Testing " + testPair);
+        }
 
-            if (Terminal.OUT_TEST.isEmpty()) {
-                if (!Terminal.IN_TEST.isEmpty()) {
-                    failAndLog("The program quitted too early\n"
-                            + "Please check that your program resets all static values!");
-                }
-                failAndLog("Found no more output. There is some serious issue!");
+        if (!testPair.matches(programOutput)) {
+            if (isMeasuring) {
+                log.info("Testing " + testPair);
             }
-
-            String output = popProgramOutput();
-
+            log.info(" Failed!\n");
+            String output = programOutput == null ? null : programOutput.toString();
             switch (testPair.getType()) {
                 case CHECK_EQUALS:
-                    if (!testPair.getOutput().equals(output)) {
-                        log.info(" Failed!\n");
-                        printLog();
-                        assertEquals(testPair.getOutput(), output);
-                    }
-                    break;
-                case CHECK_STARTS_WITH:
-                    if (output == null || !output.startsWith(testPair.getOutput())) {
-                        log.info(" Failed!\n");
-                        failAndLog(testPair.getFailMessage(output));
-                    }
-                    break;
-                case CHECK_CONTAINS:
-                    if (output == null || !output.contains(testPair.getOutput())) {
-                        log.info(" Failed!\n");
-                        failAndLog(testPair.getFailMessage(output));
-                    }
-                    break;
-                case CHECK_FOR_ERROR:
-                    if (output == null || !output.startsWith(ERROR_PREFIX)) {
-                        log.info(" Failed!\n");
-                        failAndLog(testPair.getFailMessage(output));
-                    }
+                    printLog();
+                    assertEquals(testPair.getOutput(), output);
                     break;
                 case CHECK_FOR_NO_OUTPUT:
-                    if (output != null) {
-                        log.info(" Failed!\n");
-                        printLog();
-                        if (output.equals("")) {
-                            output = "(empty string)";
-                        }
-                        fail("Output should have been empty but was: " + output);
+                    printLog();
+                    if (output.equals("")) {
+                        output = "(empty string)";
                     }
-                    break;
-                case NO_CHECK:
+                    fail("Output should have been empty but was: " + output);
                     break;
                 default:
-                    fail("Unimplemented error check");
+                    failAndLog(testPair.getFailMessage(output));
             }
+        }
+        if (!isMeasuring) {
             log.info(" Passed!\n");
         }
-        log.info("Test successfully completed.\n");
-        testPassed = true;
+    }
+
+    /**
+     * Provides the inputs of TestPairs to the {@link Terminal} and checks the outputs of the previous inputs.
+     * Failures are kept for the test instead of being thrown into the program, which might catch them.
+     */
+    private final class PairFeeder implements Supplier<String> {
+        private final Iterator<TestPair> testPairs;
+        private final Deque<TestPair> pendingPairs = new ArrayDeque<>();
+        private boolean quitSent = false;
+        private Throwable failure;
+
+        PairFeeder(Iterator<TestPair> testPairs) {
+            this.testPairs = testPairs;
+        }
+
+        @Override
+        public String get() {
+            if (failure == null) {
+                try {
+                    checkCompletedOutputs();
+                } catch (AssertionError e) {
+                    failure = e;
+                }
+            }
+
+            //After a failure the outputs are only collected for showing them
+            if (failure == null || showAllProgramOutput) {
+                try {
+                    if (testPairs.hasNext()) {
+                        TestPair testPair = testPairs.next();
+                        if (failure == null) {
+                            pendingPairs.add(testPair);
+                        }
+                        return testPair.getInput();
+                    }
+                } catch (UncheckedIOException e) {
+                    //A syntax error in the rest of the io-file ends the program
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+            if (!quitSent) {
+                quitSent = true;
+                return "quit";
+            }
+            return null;
+        }
+
+        void checkCompletedOutputs() {
+            while (!pendingPairs.isEmpty() && !Terminal.OUT_TEST.isEmpty()) {
+                checkOutput(pendingPairs.poll(), Terminal.OUT_TEST.pollFirst());
+            }
+        }
     }
 
     /**
      * Tests inputs and outputs of a program specified by an io-file.
      * For the syntax at the examples or in the wiki (It's very intuitive)
+     * <p>
+     * The pairs are read while the program runs, so even huge or generated io-files don't have to fit in memory.
+     * The pairs of an io-file loaded by the {@link SuitePreloader} are taken from there.
      *
      * @param path         is the path of the io-file
      * @param testedMethod is the main method of the tested program
      */
     protected void testWithIOFile(String path, Runnable testedMethod) {
-        TestPair[] pairs = loadTestPairsFromIOFile(path);
-        testUsingPairs(pairs, testedMethod);
+        Path file = Paths.get(path);
+        List<TestPair> preloaded = SuitePreloader.get(file);
+        if (preloaded != null) {
+            log.info("Testing using preloaded io-file '" + path + "'...\n");
+            GradingStats.INSTANCE.ioFileStarted(path);
+            testUsingPairs(preloaded.iterator(), preloaded.size(), testedMethod);
+            return;
+        }
+        if (!Files.exists(file))
+            fail("Test not working. Missing required File: " + path);
+
+        try (IOFileReader pairs = IOFileParser.open(file)) {
+            long pairCount = showTestProgress ? IOFileParser.count(file) : -1;
+            log.info("Testing using io-file '" + path + "'...\n");
+            GradingStats.INSTANCE.ioFileStarted(path);
+            testUsingPairs(pairs, pairCount, testedMethod);
+        } catch (IOException e) {
+            fail("Test '" + testName + "' failed. " + e.getMessage());
+        } catch (UncheckedIOException e) {
+            fail("Test '" + testName + "' failed. " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Tests a program running in its own process with an io-file.
+     * See {@link ProcessRunner} for the programs this works with.
+     * The test also fails if the program terminates with an exit code other than 0.
+     *
+     * @param path    is the path of the io-file
+     * @param program starts the tested program
+     */
+    protected void testWithIOFile(String path, ProcessRunner program) {
+        Path file = Paths.get(path);
+        if (!Files.exists(file))
+            fail("Test not working. Missing required File: " + path);
+
+        try {
+            log.info("Testing using io-file '" + path + "' in a process...\n");
+            GradingStats.INSTANCE.ioFileStarted(path);
+            List<TestPair> preloaded = SuitePreloader.get(file);
+            testUsingPairs(preloaded != null ? preloaded : IOFileParser.parse(file),
+                    IOFileParser.readCommandLineArgs(file), program);
+        } catch (IOException e) {
+            fail("Test '" + testName + "' failed. " + e.getMessage());
+        }
+    }
+
+    /**
+     * Tests a program running in its own process using a given {@link TestPair}-array.
+     * 'quit' is automatically added as input to the end.
+     * The test also fails if the program terminates with an exit code other than 0.
+     *
+     * @param testPairs is an array of testPairs
+     * @param program   starts the tested program
+     */
+    protected void testUsingPairs(TestPair[] testPairs, ProcessRunner program) {
+        log.info("Testing using " + testPairs.length + " pairs in a process...\n");
+        testUsingPairs(Arrays.asList(testPairs), null, program);
+    }
+
+    private void testUsingPairs(List<TestPair> testPairs, String[] args, ProcessRunner program) {
+        IsolatedProgram.Result result;
+        try {
+            result = program.run(IsolatedProgram.inputsOf(testPairs), args, PROCESS_TIMEOUT_MILLIS);
+        } catch (IOException e) {
+            failAndLog("Unable to run the program: " + e.getMessage());
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failAndLog("Interrupted while waiting for the program");
+            return;
+        }
+        if (result == null) {
+            failAndLog("The program didn't terminate within " + PROCESS_TIMEOUT_MILLIS + " ms");
+            return;
+        }
+
+        List<String> outputs = result.getOutputs();
+        for (int i = 0; i < testPairs.size(); i++) {
+            if (i >= outputs.size()) {
+                failAndLog("The program quitted too early"
+                        + (result.getFailure() == null ? "" : ": " + result.getFailure().getMessage()));
+            }
+            checkOutput(testPairs.get(i), outputs.get(i) == null ? null : new StringBuilder(outputs.get(i)));
+        }
+        if (result.getFailure() != null) {
+            failAndLog("The program failed after its last output: " + result.getFailure().getMessage());
+        }
+
+        log.info("Test successfully completed.\n");
+        testPassed = true;
+    }
+
+    /**
+     * Tests a program with an io-file several times and measures its steady-state performance.
+     * The warmup iterations give the JIT time to compile the hot code and aren't measured.
+     * Every iteration is a complete test, so the test fails as soon as an iteration fails.
+     * The io-file is parsed once before the iterations, so only the program and the checks of its outputs are measured.
+     *
+     * @param path               is the path of the io-file
+     * @param warmupIterations   is the number of discarded iterations
+     * @param measuredIterations is the number of measured iterations, at least one
+     * @param testedMethod       is the main method of the tested program
+     * @return the statistics of the measured iterations
+     */
+    protected TimingStatistics testWithIOFileTimed(String path, int warmupIterations, int measuredIterations,
+                                                   Runnable testedMethod) {
+        TestPair[] testPairs = loadTestPairsFromIOFile(path);
+        GradingStats.INSTANCE.ioFileStarted(path);
+        return measure(warmupIterations, measuredIterations, () -> testUsingPairs(testPairs, testedMethod));
+    }
+
+    /**
+     * Tests a program with TestPairs several times and measures its steady-state performance.
+     * See {@link #testWithIOFileTimed(String, int, int, Runnable)}.
+     *
+     * @param testPairs          is an array of testPairs
+     * @param warmupIterations   is the number of discarded iterations
+     * @param measuredIterations is the number of measured iterations, at least one
+     * @param testedMethod       is a reference to a tested program
+     * @return the statistics of the measured iterations
+     */
+    protected TimingStatistics testUsingPairsTimed(TestPair[] testPairs, int warmupIterations, int measuredIterations,
+                                                   Runnable testedMethod) {
+        return measure(warmupIterations, measuredIterations, () -> testUsingPairs(testPairs, testedMethod));
+    }
+
+    private TimingStatistics measure(int warmupIterations, int measuredIterations, Runnable iteration) {
+        if (warmupIterations < 0 || measuredIterations < 1) {
+            throw new IllegalArgumentException("Expected at least 0 warmup and 1 measured iterations but got "
+                    + warmupIterations + " and " + measuredIterations);
+        }
+
+        long[] nanos = new long[measuredIterations];
+        isMeasuring = true;
+        try {
+            for (int i = 1; i <= warmupIterations; i++) {
+                log.info("Warmup iteration " + i + "/" + warmupIterations + "\n");
+                iteration.run();
+            }
+
+            for (int i = 0; i < measuredIterations; i++) {
+                log.info("Measured iteration " + (i + 1) + "/" + measuredIterations + "\n");
+                long start = System.nanoTime();
+                iteration.run();
+                nanos[i] = System.nanoTime() - start;
+            }
+        } finally {
+            isMeasuring = false;
+        }
+
+        TimingStatistics timing = new TimingStatistics(nanos);
+        log.info("Steady state of '" + testName + "': " + timing + "\n");
+        System.out.println("Steady state of '" + testName + "': " + timing);
+        return timing;
+    }
+
+    /**
+     * Lets the test fail if the mean duration of the measured iterations exceeds a budget
+     *
+     * @param timing       are the statistics of a timed test
+     * @param budgetMillis is the maximal mean duration of an iteration in milliseconds
+     */
+    protected void assertMeanWithin(TimingStatistics timing, double budgetMillis) {
+        if (timing.getMeanMillis() > budgetMillis) {
+            testPassed = false;
+            failAndLog("The steady state exceeded the budget of " + budgetMillis + " ms: " + timing);
+        }
     }
 
     /**
@@ -279,14 +544,7 @@ public abstract class TestBase {
      */
     protected String[] getCommandLineArgsFromIOFile(String path) {
         try {
-            BufferedReader reader = new BufferedReader(new FileReader(path));
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.startsWith(IO_FILE_COMMAND_LINE_ARGS_PREFIX)) {
-                    line = line.substring(2);
-                    return line.split(" ");
-                }
-            }
+            return IOFileParser.readCommandLineArgs(Paths.get(path));
         } catch (IOException ex) {
             fail("Test '" + testName + "' failed. " + ex.getMessage());
         }
@@ -302,70 +560,23 @@ public abstract class TestBase {
      * @return the test pairs
      */
     protected TestPair[] loadTestPairsFromIOFile(String path) {
-        List<TestPair> testPairs = new ArrayList<>();
-
+        List<TestPair> preloaded = SuitePreloader.get(Paths.get(path));
+        if (preloaded != null) {
+            return preloaded.toArray(new TestPair[preloaded.size()]);
+        }
         if (!Files.exists(Paths.get(path)))
             fail("Test not working. Missing required File: " + path);
 
-        boolean isFileStart = true;
-        StringBuilder builder = new StringBuilder();
-        final String inputLinePrefix = "> ";
-        String input = "";
-
+        List<TestPair> testPairs = new ArrayList<>();
         try {
-            BufferedReader reader = new BufferedReader(new FileReader(path));
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.startsWith(inputLinePrefix)) {
-                    if (isFileStart) {
-                        isFileStart = false;
-                    } else {
-                        testPairs.add(getIOTestPair(builder, input));
-                    }
-                    input = line.replace(inputLinePrefix, "");
-                    builder.delete(0, builder.length());
-                } else {
-                    builder.append(line);
-                    builder.append("\n");
-                }
-            }
-
+            testPairs = IOFileParser.parse(Paths.get(path));
         } catch (IOException e) {
             fail("Test '" + testName + "' failed. " + e.getMessage());
         }
 
-        if (builder.length() == 0 && input.length() != 0) {
-            testPairs.add(new TestPair(input));
-        } else {
-            testPairs.add(getIOTestPair(builder, input));
-        }
-
         return testPairs.toArray(new TestPair[testPairs.size()]);
     }
 
-    /**
-     * In here some syntax of the io-file is defined
-     */
-    private TestPair getIOTestPair(StringBuilder builder, String input) {
-        final String startsWithPostfix = "...";
-        String output = "";
-        if (builder.length() == 0) {
-            return new TestPair(input);
-        } else if (builder.length() != 0)
-            output = builder.deleteCharAt(builder.length() - 1).toString();
-        if (output.startsWith(ERROR_PREFIX)) {
-            return new TestPair(input, output, TestPair.Type.CHECK_FOR_ERROR);
-        }
-        if (output.contains(startsWithPostfix)) {
-            String[] split = output.split(startsWithPostfix);
-            assert split.length >= 1 : "Check your .io file for the test. There is a line only containing ...";
-            String start = split[0];
-            return new TestPair(input, start, TestPair.Type.CHECK_STARTS_WITH);
-        }
-
-        return new TestPair(input, output);
-    }
-
     /**
      * If enabled, this shows the output of a program, after a test fails
      */
@@ -374,7 +585,7 @@ public abstract class TestBase {
     }
 
     /**
-     * Shows a progress-bar for this test
+     * Shows the progress of this test every second, see {@link ProgressReporter}
      */
     protected void enableShowTestProgress() {
         showTestProgress = true;
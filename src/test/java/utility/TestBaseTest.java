@@ -0,0 +1,107 @@
+package utility;
+
+import edu.kit.informatik.Terminal;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestBaseTest extends TestBase {
+    private static final List<TestPair> PAIRS = Arrays.asList(
+            new TestPair("a", "A"), new TestPair("b", "wrong"), new TestPair("c", "C"));
+
+    private final List<String> readInputs = new ArrayList<>();
+
+    @Test
+    void showsOutputsAfterFailure() {
+        enableShowAllProgramOutput();
+
+        assertThrows(AssertionError.class, () -> testUsingPairs(PAIRS.iterator(), PAIRS.size(), this::upperCase));
+
+        assertEquals(Arrays.asList("a", "b", "c", "quit"), readInputs);
+        assertEquals("C", String.valueOf(Terminal.OUT_TEST.peekFirst()));
+    }
+
+    @Test
+    void quitsAfterFailure() {
+        assertThrows(AssertionError.class, () -> testUsingPairs(PAIRS.iterator(), PAIRS.size(), this::upperCase));
+
+        assertEquals(Arrays.asList("a", "b", "quit"), readInputs);
+    }
+
+    @Test
+    void failsOnSyntaxErrorCaughtByProgram() {
+        Iterator<TestPair> pairs = new Iterator<TestPair>() {
+            private boolean isFirst = true;
+
+            @Override
+            public boolean hasNext() {
+                if (isFirst) {
+                    return true;
+                }
+                throw new UncheckedIOException(new IOException("Syntax error in io-file at line 3"));
+            }
+
+            @Override
+            public TestPair next() {
+                isFirst = false;
+                return new TestPair("a", "A");
+            }
+        };
+
+        UncheckedIOException e = assertThrows(UncheckedIOException.class,
+                () -> testUsingPairs(pairs, -1, this::upperCaseCatchingExceptions));
+        assertEquals("Syntax error in io-file at line 3", e.getCause().getMessage());
+        assertEquals(Arrays.asList("a", "quit"), readInputs);
+    }
+
+    @Test
+    void failsOnExitCodeOfProcess() throws IOException {
+        Path directory = Files.createTempDirectory("test-base");
+        try {
+            Path classes = ProcessRunnerTest.compileEcho(directory);
+            TestPair[] pairs = {new TestPair("a", "A")};
+
+            testUsingPairs(pairs, ProcessRunnerTest.echoRunner(classes));
+            AssertionError e = assertThrows(AssertionError.class,
+                    () -> testUsingPairs(pairs, ProcessRunnerTest.echoRunner(classes, "-Decho.exit=3")));
+            assertTrue(e.getMessage().endsWith("exit code 3"), e.getMessage());
+        } finally {
+            IOFileFixtures.delete(directory);
+        }
+    }
+
+    private void upperCase() {
+        String input;
+        while (!(input = Terminal.readLine()).equals("quit")) {
+            readInputs.add(input);
+            Terminal.printLine(input.toUpperCase());
+        }
+        readInputs.add(input);
+    }
+
+    private void upperCaseCatchingExceptions() {
+        while (true) {
+            try {
+                String input = Terminal.readLine();
+                readInputs.add(input);
+                if (input.equals("quit")) {
+                    return;
+                }
+                Terminal.printLine(input.toUpperCase());
+            } catch (Exception e) {
+                Terminal.printLine(TestBase.ERROR_PREFIX + e.getMessage());
+            }
+        }
+    }
+}
@@ -1,16 +1,107 @@
 package utility;
 
+import edu.kit.informatik.Terminal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
 public class TestPair {
+    /**
+     * The expected output of a {@link Type#CHECK_HASH} pair: the length and the SHA-256 hash of the output
+     */
+    private static final Pattern HASH_OUTPUT = Pattern.compile("\\d+ \\p{XDigit}{64}");
+
     public String getFailMessage(String actualOutput) {
         if (actualOutput == null) {
             return "Fail with " + this + "\nThe program provided no output for that command";
         }
+        if (type == Type.CHECK_HASH) {
+            return "Fail with " + this + "\nThe output has the length " + actualOutput.length()
+                    + " and the hash " + Terminal.hashOutput(actualOutput) + ". It starts with:\n"
+                    + actualOutput.split("\n", 2)[0];
+        }
+        if (type == Type.CHECK_UNORDERED) {
+            return "Fail with " + this + "\nThe lines of the output differ (in any order)"
+                    + describeLines("Missing lines", missingLines(output, actualOutput))
+                    + describeLines("Unexpected lines", missingLines(actualOutput, output));
+        }
 
         return "Fail with " + this + "\nOutput was:"
                 + (actualOutput.contains("\n") ? "\n" : " ")
                 + actualOutput + (actualOutput.isEmpty() ? "(empty)" : "");
     }
 
+    /**
+     * Checks whether the output of a program satisfies this pair.
+     * This is the same check {@link TestBase#testUsingPairs(TestPair[], Runnable)} performs, without failing a test.
+     *
+     * @param actualOutput is the output of the program or {@code null} if there was none
+     * @return true if the output is accepted
+     */
+    public boolean matches(String actualOutput) {
+        switch (type) {
+            case CHECK_EQUALS:
+                return output.equals(actualOutput);
+            case CHECK_STARTS_WITH:
+                return actualOutput != null && actualOutput.startsWith(output);
+            case CHECK_CONTAINS:
+                return actualOutput != null && actualOutput.contains(output);
+            case CHECK_FOR_ERROR:
+                return actualOutput != null && actualOutput.startsWith(TestBase.ERROR_PREFIX);
+            case CHECK_FOR_NO_OUTPUT:
+                return actualOutput == null;
+            case CHECK_UNORDERED:
+                return actualOutput != null && isSameMultiset(output, actualOutput);
+            case CHECK_HASH:
+                return matchesHash(actualOutput);
+            case NO_CHECK:
+                return true;
+            default:
+                throw new IllegalStateException("Unimplemented error check");
+        }
+    }
+
+    /**
+     * Checks whether the output of a program satisfies this pair.
+     * The output is only copied into a {@code String} if the check needs one, i.e. not for {@link Type#CHECK_HASH}.
+     *
+     * @param actualOutput is the output of the program or {@code null} if there was none
+     * @return true if the output is accepted
+     */
+    public boolean matches(CharSequence actualOutput) {
+        if (type == Type.CHECK_HASH) {
+            return matchesHash(actualOutput);
+        }
+        return matches(actualOutput == null ? null : actualOutput.toString());
+    }
+
+    /**
+     * Checks whether a text is the expected output of a {@link Type#CHECK_HASH} pair
+     *
+     * @param output is the expected output
+     * @return true if the text has the form '&lt;length&gt; &lt;sha-256 hash&gt;'
+     */
+    static boolean isHashOutput(String output) {
+        return HASH_OUTPUT.matcher(output).matches();
+    }
+
+    /**
+     * Compares the length and the hash of an output with the expected ones, in the form '&lt;length&gt; &lt;hash&gt;'
+     */
+    private boolean matchesHash(CharSequence actualOutput) {
+        if (actualOutput == null) {
+            return false;
+        }
+        int separator = output.indexOf(' ');
+        return output.substring(0, separator).equals(String.valueOf(actualOutput.length()))
+                && output.substring(separator + 1).equalsIgnoreCase(Terminal.hashOutput(actualOutput));
+    }
+
     public enum Type {
         CHECK_EQUALS,
         CHECK_STARTS_WITH,
@@ -18,15 +109,99 @@ public class TestPair {
         CHECK_CONTAINS,
         CHECK_FOR_NO_OUTPUT,
         NO_CHECK,
+        /**
+         * Expects the same lines as the output, each as often as there, but in any order
+         */
+        CHECK_UNORDERED,
+        /**
+         * Expects an output with the length and SHA-256 hash given by the output of the pair, like '12 ab34...'.
+         * See {@link Terminal#hashOutput(CharSequence)}.
+         */
+        CHECK_HASH,
+    }
+
+    /**
+     * Compares the lines of two texts as multisets in linear time
+     */
+    private static boolean isSameMultiset(String expected, String actual) {
+        if (expected.length() != actual.length()) {
+            return false;
+        }
+        String[] expectedLines = expected.split("\n", -1);
+        String[] actualLines = actual.split("\n", -1);
+        if (expectedLines.length != actualLines.length) {
+            return false;
+        }
+
+        Map<String, Integer> counts = new HashMap<>(expectedLines.length * 2);
+        for (String line : expectedLines) {
+            counts.merge(line, 1, Integer::sum);
+        }
+        for (String line : actualLines) {
+            Integer count = counts.get(line);
+            if (count == null) {
+                return false;
+            }
+            if (count == 1) {
+                counts.remove(line);
+            } else {
+                counts.put(line, count - 1);
+            }
+        }
+        return counts.isEmpty();
+    }
+
+    /**
+     * Gets the lines of a text not contained in another one, respecting how often a line occurs
+     *
+     * @return the lines in the order of the text
+     */
+    private static List<String> missingLines(String text, String other) {
+        Map<String, Integer> available = new HashMap<>();
+        for (String line : other.split("\n", -1)) {
+            available.merge(line, 1, Integer::sum);
+        }
+
+        List<String> missing = new ArrayList<>();
+        for (String line : text.split("\n", -1)) {
+            if (available.merge(line, -1, Integer::sum) < 0) {
+                missing.add(line);
+            }
+        }
+        return missing;
+    }
+
+    private static String describeLines(String title, List<String> lines) {
+        if (lines.isEmpty()) {
+            return "";
+        }
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String line : lines) {
+            counts.merge(line, 1, Integer::sum);
+        }
+
+        StringBuilder description = new StringBuilder("\n").append(title).append(':');
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            description.append("\n  ").append(entry.getKey().isEmpty() ? "(empty line)" : entry.getKey());
+            if (entry.getValue() > 1) {
+                description.append(" (").append(entry.getValue()).append(" times)");
+            }
+        }
+        return description.toString();
     }
 
-    private String input;
-    private String output;
-    private Type type;
+    private final String input;
+    private final String output;
+    private final Type type;
 
+    /**
+     * @throws IllegalArgumentException if the output of a {@link Type#CHECK_HASH} pair isn't
+     *                                  '&lt;length&gt; &lt;sha-256 hash&gt;'
+     */
     public TestPair(String input, String output, Type type) {
         assert input != null : "input is null";
         assert output != null : "output is null";
+        checkHashOutput(output, type);
         this.input = input;
         this.output = output;
         this.type = type;
@@ -42,6 +217,7 @@ public class TestPair {
 
     public TestPair(String input, Type type) {
         assert input != null : "input is null";
+        checkHashOutput("", type);
         this.input = input;
         this.type = type;
         this.output = "";
@@ -58,6 +234,13 @@ public class TestPair {
         this.type = Type.CHECK_FOR_NO_OUTPUT;
     }
 
+    private static void checkHashOutput(String output, Type type) {
+        if (type == Type.CHECK_HASH && !isHashOutput(output)) {
+            throw new IllegalArgumentException("Expected '<length> <sha-256 hash>' as output of a hash check, but got '"
+                    + output + "'");
+        }
+    }
+
     public String getInput() {
         return input;
     }
@@ -70,6 +253,26 @@ public class TestPair {
         return type;
     }
 
+    /**
+     * Pairs are equal if they have the same input, output and type
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof TestPair)) {
+            return false;
+        }
+        TestPair pair = (TestPair) other;
+        return type == pair.type && Objects.equals(input, pair.input) && Objects.equals(output, pair.output);
+    }
+
+    @Override
+    public int hashCode() {
+        return (31 * Objects.hashCode(input) + Objects.hashCode(output)) * 31 + type.ordinal();
+    }
+
     @Override
     public String toString() {
         if (type == Type.CHECK_FOR_ERROR && output.equals(TestBase.ERROR_PREFIX + "...")
@@ -0,0 +1,97 @@
+package utility;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Lets the {@link TestPair}s with equal expected outputs share a single instance of the output.
+ * Big suites repeat the same outputs ('OK', error messages, whole boards) thousands of times,
+ * so the loaded outputs need memory in proportion to their distinct content instead of their number.
+ * Inputs and pairs aren't interned, because most of them are distinct and an entry for each of them needs more
+ * memory than sharing the few repeated ones saves.
+ * <p>
+ * The table only holds weak references. An entry disappears as soon as no loaded suite uses it anymore.
+ * It is split into stripes with their own lock, so io-files parsed concurrently rarely wait for each other.
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+public final class TestPairInterner {
+    /**
+     * The table shared by all io-files of a test run
+     */
+    public static final TestPairInterner SUITE = new TestPairInterner();
+
+    private static final int STRIPES = 64;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private TestPairInterner() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Gets a pair with the canonical instance of its output
+     *
+     * @param pair is the pair
+     * @return the pair itself if its output is canonical already, otherwise an equal pair with the canonical output
+     */
+    public TestPair intern(TestPair pair) {
+        String output = intern(pair.getOutput());
+        if (output == pair.getOutput()) {
+            return pair;
+        }
+        return new TestPair(pair.getInput(), output, pair.getType());
+    }
+
+    /**
+     * Gets the canonical instance of an output
+     *
+     * @param text is the text or null
+     * @return an equal text, which is the same for all equal texts, or null
+     */
+    public String intern(String text) {
+        if (text == null) {
+            return null;
+        }
+        int hash = text.hashCode();
+        return stripes[(hash ^ hash >>> 16) & (STRIPES - 1)].intern(text);
+    }
+
+    /**
+     * Counts the distinct texts in use
+     *
+     * @return the number of entries of the table
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * A part of the table with its own lock
+     */
+    private static final class Stripe {
+        private final Map<String, WeakReference<String>> canonical = new WeakHashMap<>();
+
+        synchronized String intern(String text) {
+            WeakReference<String> reference = canonical.get(text);
+            String known = reference == null ? null : reference.get();
+            if (known != null) {
+                return known;
+            }
+            canonical.put(text, new WeakReference<>(text));
+            return text;
+        }
+
+        synchronized int size() {
+            return canonical.size();
+        }
+    }
+}
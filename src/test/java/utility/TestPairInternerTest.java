@@ -0,0 +1,63 @@
+package utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TestPairInternerTest {
+    private static final String BOARD = "+-+-+\n|x|o|\n+-+-+";
+
+    @Test
+    void sharesOutputsOfAllIOFiles() throws IOException {
+        List<TestPair> first = parse("> add 1\nOK\n> print\n" + BOARD + "\n> add 2\nOK\n");
+        List<TestPair> second = parse("#repeat 2 i\n> add ${i}\nOK\n#end\n> print\n" + BOARD + "\n");
+
+        assertSame(first.get(0).getOutput(), first.get(2).getOutput());
+        assertSame(first.get(0).getOutput(), second.get(0).getOutput());
+        assertSame(first.get(0).getOutput(), second.get(1).getOutput());
+        assertSame(first.get(1).getOutput(), second.get(2).getOutput());
+        assertEquals(new TestPair("print", BOARD), second.get(2));
+    }
+
+    @Test
+    void forgetsUnusedOutputs() throws InterruptedException {
+        WeakReference<String> output = new WeakReference<>(TestPairInterner.SUITE.intern(new String("unused output")));
+
+        for (int i = 0; i < 50 && output.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertNull(output.get());
+    }
+
+    @Test
+    void sharesOutputsInternedConcurrently() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<String>> outputs = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            outputs.add(executor.submit(() -> TestPairInterner.SUITE.intern(new String("concurrent output"))));
+        }
+        String canonical = outputs.get(0).get();
+        for (Future<String> output : outputs) {
+            assertSame(canonical, output.get());
+        }
+        executor.shutdown();
+    }
+
+    private static List<TestPair> parse(String ioFile) throws IOException {
+        return IOFileParser.parse(new BufferedReader(new StringReader(ioFile)));
+    }
+}
@@ -0,0 +1,92 @@
+package utility;
+
+import edu.kit.informatik.Terminal;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestPairTest {
+    private static final String OUTPUT = "a huge\noutput";
+
+    @Test
+    void matchesHashOfOutput() throws IOException {
+        String hashLine = TestBase.IO_FILE_HASH_PREFIX + OUTPUT.length() + " " + Terminal.hashOutput(OUTPUT);
+        List<TestPair> pairs = IOFileParser.parse(new BufferedReader(new StringReader("> print\n" + hashLine)));
+
+        assertEquals(1, pairs.size());
+        TestPair pair = pairs.get(0);
+        assertEquals(TestPair.Type.CHECK_HASH, pair.getType());
+        assertTrue(pair.matches(OUTPUT));
+        assertTrue(pair.matches(new StringBuilder(OUTPUT)));
+        assertFalse(pair.matches("a huge\nOutput"));
+        assertFalse(pair.matches(OUTPUT + "!"));
+        assertFalse(pair.matches((String) null));
+    }
+
+    @Test
+    void rejectsMalformedHash() {
+        String hash = Terminal.hashOutput(OUTPUT);
+        for (String output : new String[]{"", hash, OUTPUT.length() + "", OUTPUT.length() + " " + hash + "0"}) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new TestPair("print", output, TestPair.Type.CHECK_HASH));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new TestPair("print", TestPair.Type.CHECK_HASH));
+
+        String ioFile = "> print\n" + TestBase.IO_FILE_HASH_PREFIX + hash;
+        assertThrows(IOException.class, () -> IOFileParser.parse(new BufferedReader(new StringReader(ioFile))));
+    }
+
+    @Test
+    void describesMissingAndUnexpectedLines() {
+        TestPair pair = new TestPair("list", "a\nb\nc", TestPair.Type.CHECK_UNORDERED);
+
+        assertEquals(unorderedMessage(pair, "\nMissing lines:\n  b"), pair.getFailMessage("c\na"));
+        assertEquals(unorderedMessage(pair, "\nUnexpected lines:\n  d"), pair.getFailMessage("c\nd\nb\na"));
+        assertEquals(unorderedMessage(pair, "\nMissing lines:\n  a\n  c\nUnexpected lines:\n  x"),
+                pair.getFailMessage("b\nx"));
+    }
+
+    @Test
+    void countsRepeatedLines() {
+        TestPair pair = new TestPair("list", "a\na\na\nb", TestPair.Type.CHECK_UNORDERED);
+
+        assertEquals(unorderedMessage(pair, "\nMissing lines:\n  a (2 times)"), pair.getFailMessage("b\na"));
+        assertEquals(unorderedMessage(pair, "\nMissing lines:\n  b\nUnexpected lines:\n  a (3 times)"),
+                pair.getFailMessage("a\na\na\na\na\na"));
+    }
+
+    @Test
+    void namesEmptyLines() {
+        TestPair pair = new TestPair("list", "a\n\nb", TestPair.Type.CHECK_UNORDERED);
+
+        assertTrue(pair.matches("\nb\na"));
+        assertEquals(unorderedMessage(pair, "\nMissing lines:\n  (empty line)"), pair.getFailMessage("b\na"));
+        assertEquals(unorderedMessage(pair, "\nUnexpected lines:\n  (empty line) (2 times)"),
+                pair.getFailMessage("\na\n\nb\n"));
+    }
+
+    @Test
+    void comparesLinesOfSameLength() {
+        TestPair pair = new TestPair("list", "ab\ncd\ncd", TestPair.Type.CHECK_UNORDERED);
+
+        assertTrue(pair.matches("cd\nab\ncd"));
+        assertFalse(pair.matches("cd\nba\ncd"));
+        assertFalse(pair.matches("ab\nab\ncd"));
+        assertEquals(unorderedMessage(pair, "\nMissing lines:\n  ab\nUnexpected lines:\n  ba"),
+                pair.getFailMessage("cd\nba\ncd"));
+        assertEquals(unorderedMessage(pair, "\nMissing lines:\n  cd\nUnexpected lines:\n  ab"),
+                pair.getFailMessage("ab\nab\ncd"));
+    }
+
+    private static String unorderedMessage(TestPair pair, String lines) {
+        return "Fail with " + pair + "\nThe lines of the output differ (in any order)" + lines;
+    }
+}
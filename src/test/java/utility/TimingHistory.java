@@ -0,0 +1,264 @@
+package utility;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers how long the io-files took in previous runs and plans the next runs with it.
+ * Long io-files are started first (longest processing time first), so no long io-file is started last
+ * and keeps a single worker busy while all others are idle. The same estimates split io-files into balanced shards
+ * for several worker processes.
+ * <p>
+ * The durations are kept in a properties file as the mean and the number of recorded durations of each io-file.
+ * The mean weights at most {@value #MAX_WEIGHT} durations, so older durations slowly lose their weight and
+ * the mean follows a program that got faster or slower. The duration of an io-file without history is estimated
+ * from its size.
+ * <p>
+ * Processes sharing the file, like the worker processes of the {@link BatchGrader}, lock it while they save,
+ * so no recorded duration gets lost.
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+public class TimingHistory {
+    public static final Path DEFAULT_FILE = Paths.get("timing-history.properties");
+
+    /**
+     * The maximal number of durations the mean of an io-file weights
+     */
+    public static final long MAX_WEIGHT = 100;
+
+    private static final double DEFAULT_MILLIS_PER_BYTE = 1e-3;
+    private static final String LOCK_EXTENSION = ".lock";
+
+    private final Path file;
+    private final double millisPerByte;
+    private final Map<String, Mean> millisByIOFile = new ConcurrentHashMap<>();
+    private final Map<String, Mean> recordedMillis = new ConcurrentHashMap<>();
+
+    /**
+     * Loads the history from a file
+     *
+     * @param file is the properties file, which doesn't have to exist yet
+     * @throws IOException if the file exists but can't be read
+     */
+    public TimingHistory(Path file) throws IOException {
+        this.file = file;
+        millisByIOFile.putAll(read(file));
+
+        //The io-files with a history tell how long a byte of an io-file takes
+        double knownMillis = 0;
+        double knownBytes = 0;
+        for (Map.Entry<String, Mean> entry : millisByIOFile.entrySet()) {
+            long size = size(Paths.get(entry.getKey()));
+            if (size > 0) {
+                knownMillis += entry.getValue().millis;
+                knownBytes += size;
+            }
+        }
+        millisPerByte = knownBytes > 0 ? knownMillis / knownBytes : DEFAULT_MILLIS_PER_BYTE;
+    }
+
+    /**
+     * Records the duration of a run of an io-file
+     *
+     * @param ioFile is the io-file
+     * @param millis is the duration of the run
+     */
+    public void record(Path ioFile, double millis) {
+        String key = keyOf(ioFile);
+        Mean duration = new Mean(millis, 1);
+        recordedMillis.merge(key, duration, Mean::add);
+        millisByIOFile.merge(key, duration, Mean::add);
+    }
+
+    /**
+     * Gets the expected duration of an io-file
+     *
+     * @param ioFile is the io-file
+     * @return the average recorded duration or an estimation from the size of the io-file in milliseconds
+     */
+    public double estimateMillis(Path ioFile) {
+        Mean mean = millisByIOFile.get(keyOf(ioFile));
+        if (mean != null) {
+            return mean.millis;
+        }
+        return Math.max(1, size(ioFile)) * millisPerByte;
+    }
+
+    /**
+     * Sorts io-files by their expected duration, the longest first
+     *
+     * @param ioFiles are the io-files
+     * @return the sorted io-files
+     */
+    public List<Path> longestFirst(List<Path> ioFiles) {
+        Map<Path, Double> estimates = new HashMap<>();
+        for (Path ioFile : ioFiles) {
+            estimates.put(ioFile, estimateMillis(ioFile));
+        }
+
+        return longestFirst(ioFiles, estimates);
+    }
+
+    private static List<Path> longestFirst(List<Path> ioFiles, Map<Path, Double> estimates) {
+        List<Path> sorted = new ArrayList<>(ioFiles);
+        sorted.sort(Comparator.comparing((Path ioFile) -> estimates.get(ioFile)).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+        return sorted;
+    }
+
+    /**
+     * Splits io-files into shards with about the same expected duration.
+     * Each io-file is added to the shard with the lowest total so far, the longest io-files first.
+     * The result only depends on the io-files and the history, so separate processes agree on the shards.
+     *
+     * @param ioFiles are the io-files
+     * @param shards  is the number of shards
+     * @return the io-files of each shard, the longest first
+     */
+    public List<List<Path>> splitIntoShards(List<Path> ioFiles, int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("At least one shard is required, but got " + shards);
+        }
+
+        List<List<Path>> result = new ArrayList<>(shards);
+        double[] totals = new double[shards];
+        PriorityQueue<Integer> lightest = new PriorityQueue<>(shards,
+                Comparator.comparingDouble((Integer shard) -> totals[shard]).thenComparing(shard -> shard));
+        for (int shard = 0; shard < shards; shard++) {
+            result.add(new ArrayList<>());
+            lightest.add(shard);
+        }
+
+        Map<Path, Double> estimates = new HashMap<>();
+        for (Path ioFile : ioFiles) {
+            estimates.put(ioFile, estimateMillis(ioFile));
+        }
+        for (Path ioFile : longestFirst(ioFiles, estimates)) {
+            int shard = lightest.poll();
+            result.get(shard).add(ioFile);
+            totals[shard] += estimates.get(ioFile);
+            lightest.add(shard);
+        }
+        return result;
+    }
+
+    /**
+     * Adds the recorded durations to the history file.
+     * The file is locked while it is read and written, so durations other processes save at the same time are kept.
+     *
+     * @throws IOException if the file can't be written
+     */
+    public void save() throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path lockFile = directory.resolve(file.getFileName() + LOCK_EXTENSION);
+        //A JVM can't lock a file twice, so histories of the same JVM wait for each other first
+        synchronized (TimingHistory.class) {
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                //Closing the channel releases the lock
+                channel.lock();
+                Map<String, Mean> saved = new HashMap<>(recordedMillis);
+                Map<String, Mean> merged = new HashMap<>(read(file));
+                for (Map.Entry<String, Mean> entry : saved.entrySet()) {
+                    merged.merge(entry.getKey(), entry.getValue(), Mean::add);
+                }
+
+                Properties properties = new Properties();
+                for (Map.Entry<String, Mean> entry : merged.entrySet()) {
+                    properties.setProperty(entry.getKey(), entry.getValue().toString());
+                }
+
+                Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+                try (OutputStream out = Files.newOutputStream(temporary)) {
+                    properties.store(out, "Mean durations of io-files in milliseconds and their number");
+                }
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                //Durations recorded in the meantime are saved next time
+                saved.forEach(recordedMillis::remove);
+            }
+        }
+    }
+
+    private static Map<String, Mean> read(Path file) throws IOException {
+        Map<String, Mean> millis = new HashMap<>();
+        if (!Files.exists(file)) {
+            return millis;
+        }
+
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+        for (String key : properties.stringPropertyNames()) {
+            try {
+                millis.put(key, Mean.parse(properties.getProperty(key)));
+            } catch (NumberFormatException ignored) {
+                //A broken entry is just forgotten
+            }
+        }
+        return millis;
+    }
+
+    private static String keyOf(Path ioFile) {
+        return ioFile.toAbsolutePath().normalize().toString();
+    }
+
+    private static long size(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException | UncheckedIOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * The mean of recorded durations and the number of durations it weights
+     */
+    private static final class Mean {
+        private final double millis;
+        private final long count;
+
+        Mean(double millis, long count) {
+            this.millis = millis;
+            this.count = count;
+        }
+
+        /**
+         * Parses a mean written by {@link #toString()}. A single number is a mean of one duration.
+         */
+        static Mean parse(String text) {
+            String[] parts = text.trim().split(" ");
+            return new Mean(Double.parseDouble(parts[0]), parts.length > 1 ? Long.parseLong(parts[1]) : 1);
+        }
+
+        Mean add(Mean other) {
+            long total = count + other.count;
+            double mean = (millis * count + other.millis * other.count) / total;
+            return new Mean(mean, Math.min(total, MAX_WEIGHT));
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%.3f %d", millis, count);
+        }
+    }
+}
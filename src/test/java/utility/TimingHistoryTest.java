@@ -0,0 +1,109 @@
+package utility;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TimingHistoryTest {
+    private static final double DELTA = 1e-3;
+
+    private Path directory;
+    private Path file;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("timing-history");
+        file = directory.resolve("history.properties");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        IOFileFixtures.delete(directory);
+    }
+
+    @Test
+    void averagesAllRecordedDurations() throws IOException {
+        Path ioFile = directory.resolve("a.io");
+        TimingHistory history = new TimingHistory(file);
+        history.record(ioFile, 10);
+        history.record(ioFile, 20);
+        history.record(ioFile, 60);
+        history.save();
+
+        assertEquals(30, history.estimateMillis(ioFile), DELTA);
+        assertEquals(30, new TimingHistory(file).estimateMillis(ioFile), DELTA);
+
+        TimingHistory nextRun = new TimingHistory(file);
+        nextRun.record(ioFile, 70);
+        nextRun.save();
+        assertEquals(40, new TimingHistory(file).estimateMillis(ioFile), DELTA);
+    }
+
+    @Test
+    void keepsDurationsSavedConcurrently() throws Exception {
+        int workers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        List<Future<?>> saves = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            Path ioFile = directory.resolve(w + ".io");
+            double millis = w + 1;
+            saves.add(executor.submit(() -> {
+                TimingHistory history = new TimingHistory(file);
+                history.record(ioFile, millis);
+                history.save();
+                return null;
+            }));
+        }
+        for (Future<?> save : saves) {
+            save.get();
+        }
+        executor.shutdown();
+
+        TimingHistory history = new TimingHistory(file);
+        for (int w = 0; w < workers; w++) {
+            assertEquals(w + 1, history.estimateMillis(directory.resolve(w + ".io")), DELTA);
+        }
+    }
+
+    @Test
+    void readsMeansWithoutCount() throws IOException {
+        Path ioFile = directory.resolve("a.io");
+        Files.write(file, Arrays.asList(ioFile.toAbsolutePath().normalize().toString().replace("\\", "\\\\")
+                .replace(":", "\\:") + "=12.5"));
+
+        TimingHistory history = new TimingHistory(file);
+        history.record(ioFile, 27.5);
+
+        assertEquals(20, history.estimateMillis(ioFile), DELTA);
+    }
+
+    @Test
+    void splitsIntoBalancedShards() throws IOException {
+        TimingHistory history = new TimingHistory(file);
+        List<Path> ioFiles = new ArrayList<>();
+        for (int millis = 4; millis <= 8; millis++) {
+            Path ioFile = directory.resolve(millis + ".io");
+            history.record(ioFile, millis);
+            ioFiles.add(ioFile);
+        }
+
+        List<List<Path>> shards = history.splitIntoShards(ioFiles, 2);
+
+        assertEquals(Arrays.asList(
+                Arrays.asList(directory.resolve("8.io"), directory.resolve("5.io"), directory.resolve("4.io")),
+                Arrays.asList(directory.resolve("7.io"), directory.resolve("6.io"))), shards);
+        assertEquals(ioFiles.size(), shards.get(0).size() + shards.get(1).size());
+    }
+}
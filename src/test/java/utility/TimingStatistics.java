@@ -0,0 +1,124 @@
+package utility;
+
+import java.util.Arrays;
+
+/**
+ * Statistics of measured durations, e.g. of the steady-state iterations of a timed test.
+ * The error is the half width of the 99% confidence interval of the mean (Student's t-distribution).
+ * Outliers are samples outside Tukey's fences (1.5 interquartile ranges beyond the quartiles).
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+public final class TimingStatistics {
+    /**
+     * Two-sided 99% quantiles of Student's t-distribution for 1 to 30 degrees of freedom
+     */
+    private static final double[] T_QUANTILES = {63.657, 9.925, 5.841, 4.604, 4.032, 3.707, 3.499, 3.355, 3.250,
+            3.169, 3.106, 3.055, 3.012, 2.977, 2.947, 2.921, 2.898, 2.878, 2.861, 2.845, 2.831, 2.819, 2.807, 2.797,
+            2.787, 2.779, 2.771, 2.763, 2.756, 2.750};
+    private static final double NORMAL_QUANTILE = 2.576;
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private final long[] sortedNanos;
+    private final double mean;
+    private final double error;
+    private final int outliers;
+
+    /**
+     * Computes the statistics of measured durations
+     *
+     * @param nanos are the durations in nanoseconds, at least one
+     * @throws IllegalArgumentException if there are no durations
+     */
+    public TimingStatistics(long[] nanos) {
+        if (nanos.length == 0) {
+            throw new IllegalArgumentException("No durations measured");
+        }
+        sortedNanos = nanos.clone();
+        Arrays.sort(sortedNanos);
+
+        double sum = 0;
+        for (long sample : sortedNanos) {
+            sum += sample;
+        }
+        mean = sum / sortedNanos.length;
+
+        if (sortedNanos.length > 1) {
+            double squares = 0;
+            for (long sample : sortedNanos) {
+                squares += (sample - mean) * (sample - mean);
+            }
+            double standardDeviation = Math.sqrt(squares / (sortedNanos.length - 1));
+            int degreesOfFreedom = sortedNanos.length - 1;
+            double quantile = degreesOfFreedom <= T_QUANTILES.length
+                    ? T_QUANTILES[degreesOfFreedom - 1] : NORMAL_QUANTILE;
+            error = quantile * standardDeviation / Math.sqrt(sortedNanos.length);
+        } else {
+            error = Double.NaN;
+        }
+
+        double firstQuartile = quantile(0.25);
+        double thirdQuartile = quantile(0.75);
+        double fence = 1.5 * (thirdQuartile - firstQuartile);
+        int outside = 0;
+        for (long sample : sortedNanos) {
+            if (sample < firstQuartile - fence || sample > thirdQuartile + fence) {
+                outside++;
+            }
+        }
+        outliers = outside;
+    }
+
+    private double quantile(double p) {
+        double position = p * (sortedNanos.length - 1);
+        int lower = (int) Math.floor(position);
+        int upper = (int) Math.ceil(position);
+        return sortedNanos[lower] + (position - lower) * (sortedNanos[upper] - sortedNanos[lower]);
+    }
+
+    public int getIterations() {
+        return sortedNanos.length;
+    }
+
+    public double getMeanMillis() {
+        return mean / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Gets the half width of the 99% confidence interval of the mean
+     *
+     * @return the error in milliseconds or NaN if there was only one iteration
+     */
+    public double getErrorMillis() {
+        return error / NANOS_PER_MILLI;
+    }
+
+    public double getMinMillis() {
+        return sortedNanos[0] / NANOS_PER_MILLI;
+    }
+
+    public double getMedianMillis() {
+        return quantile(0.5) / NANOS_PER_MILLI;
+    }
+
+    public double getMaxMillis() {
+        return sortedNanos[sortedNanos.length - 1] / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Counts the iterations outside Tukey's fences
+     *
+     * @return the number of outliers
+     */
+    public int getOutliers() {
+        return outliers;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.3f +- %.3f ms (99%% CI), min %.3f ms, median %.3f ms, max %.3f ms,"
+                        + " %d iterations, %d outliers", getMeanMillis(), getErrorMillis(), getMinMillis(),
+                getMedianMillis(), getMaxMillis(), getIterations(), outliers);
+    }
+}
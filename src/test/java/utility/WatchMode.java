@@ -0,0 +1,311 @@
+package utility;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps running, recompiles the sources in memory when one changes and reruns the io-file tests affected by the
+ * change.
+ * The framework stays loaded (and optimized by the JIT) between the cycles, only the program is loaded again.
+ * <p>
+ * Usage: {@code java utility.WatchMode [--main=<class>] [--sources=<dir>] [--timeout=<seconds>] <io-file-dir>}
+ * <ul>
+ * <li>{@code --main=<class>} main class of the program (default: edu.kit.informatik.Main)</li>
+ * <li>{@code --sources=<dir>} the watched source directory (default: src/main/java)</li>
+ * <li>{@code --timeout=<seconds>} time limit of a single io-file (default: 10)</li>
+ * </ul>
+ * All sources are compiled again on every change, so classes depending on a changed or deleted class never keep
+ * stale bytecode like inlined constants or calls of old signatures.
+ * An io-file is rerun if one of the classes it loaded last time changed or if the io-file itself changed.
+ * Requires a JDK, because the compiler is used.
+ *
+ * @author agent
+ * @since 19.10.2026
+ */
+public final class WatchMode {
+    private static final long QUIET_PERIOD_MILLIS = 100;
+
+    private final InMemoryCompiler compiler;
+    private final String mainClass;
+    private final Path ioDirectory;
+    private final long timeoutMillis;
+    private final Map<String, byte[]> classes = new HashMap<>();
+    private final Map<Path, Set<String>> touchedClassesByIOFile = new HashMap<>();
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+    private WatchService watcher;
+
+    /**
+     * Creates a new watch mode
+     *
+     * @param sourceDirectory is the root of the source packages
+     * @param mainClass       is the main class of the program
+     * @param ioDirectory     is the directory containing the io-files
+     * @param timeoutMillis   is the time limit of a single io-file
+     */
+    public WatchMode(Path sourceDirectory, String mainClass, Path ioDirectory, long timeoutMillis) {
+        this.compiler = new InMemoryCompiler(sourceDirectory);
+        this.mainClass = mainClass;
+        this.ioDirectory = ioDirectory.toAbsolutePath().normalize();
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String mainClass = BatchGrader.DEFAULT_MAIN_CLASS;
+        Path sources = Paths.get("src", "main", "java");
+        long timeoutSeconds = 10;
+        List<String> positional = new ArrayList<>();
+
+        for (String arg : args) {
+            if (arg.startsWith("--main=")) {
+                mainClass = arg.substring("--main=".length());
+            } else if (arg.startsWith("--sources=")) {
+                sources = Paths.get(arg.substring("--sources=".length()));
+            } else if (arg.startsWith("--timeout=")) {
+                timeoutSeconds = Long.parseLong(arg.substring("--timeout=".length()));
+            } else {
+                positional.add(arg);
+            }
+        }
+
+        if (positional.size() != 1) {
+            System.err.println("Usage: java utility.WatchMode [--main=<class>] [--sources=<dir>] [--timeout=<s>]"
+                    + " <io-file-dir>");
+            System.exit(2);
+        }
+
+        new WatchMode(sources, mainClass, Paths.get(positional.get(0)), TimeUnit.SECONDS.toMillis(timeoutSeconds))
+                .watch();
+    }
+
+    /**
+     * Compiles everything, runs all io-files and then reacts to changes until the JVM is terminated
+     *
+     * @throws IOException          if watching fails
+     * @throws InterruptedException if the watching thread is interrupted
+     */
+    public void watch() throws IOException, InterruptedException {
+        watcher = FileSystems.getDefault().newWatchService();
+        register(compiler.getSourceDirectory());
+        register(ioDirectory);
+
+        if (recompile() != null) {
+            runIOFiles(BatchGrader.listIOFiles(ioDirectory).stream().map(WatchMode::normalize)
+                    .collect(Collectors.toList()));
+        }
+
+        while (true) {
+            System.out.println("Watching for changes...");
+            Set<Path> changed = new LinkedHashSet<>();
+            Set<Path> deleted = new HashSet<>();
+            collectChanges(watcher.take(), changed, deleted);
+            WatchKey key;
+            while ((key = watcher.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                collectChanges(key, changed, deleted);
+            }
+            onChange(changed, deleted);
+        }
+    }
+
+    /**
+     * Recompiles the sources if one of them changed and reruns the affected io-files
+     *
+     * @param changed are the created and modified files
+     * @param deleted are the deleted files
+     * @return the rerun io-files
+     */
+    List<Path> onChange(Set<Path> changed, Set<Path> deleted) {
+        boolean isSourceChanged = changed.stream().anyMatch(WatchMode::isSource)
+                || deleted.stream().anyMatch(WatchMode::isSource);
+        Set<Path> affected = new LinkedHashSet<>();
+        for (Path path : changed) {
+            if (IOFileParser.isIOFile(path)) {
+                affected.add(path);
+            }
+        }
+        for (Path path : deleted) {
+            touchedClassesByIOFile.remove(path);
+        }
+
+        if (isSourceChanged) {
+            Set<String> changedClasses = recompile();
+            if (changedClasses == null) {
+                return Collections.emptyList();
+            }
+            for (Map.Entry<Path, Set<String>> entry : touchedClassesByIOFile.entrySet()) {
+                if (!Collections.disjoint(entry.getValue(), changedClasses)) {
+                    affected.add(entry.getKey());
+                }
+            }
+        }
+
+        List<Path> ioFiles = new ArrayList<>(affected);
+        runIOFiles(ioFiles);
+        return ioFiles;
+    }
+
+    /**
+     * Compiles all sources and replaces the classes.
+     * Compiling everything is cheap in memory and the only way to update the classes depending on a changed one.
+     *
+     * @return the names of all changed and removed classes or null if the compilation failed
+     */
+    Set<String> recompile() {
+        List<Path> sources;
+        try (Stream<Path> files = Files.walk(compiler.getSourceDirectory())) {
+            sources = files.filter(WatchMode::isSource).map(WatchMode::normalize).collect(Collectors.toList());
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("Unable to list the sources: " + e.getMessage());
+            return null;
+        }
+
+        long start = System.nanoTime();
+        Map<String, byte[]> compiled = Collections.emptyMap();
+        if (!sources.isEmpty()) {
+            InMemoryCompiler.Result result = compiler.compile(sources);
+            if (!result.isSuccess()) {
+                System.out.println("Compilation failed:");
+                result.getErrors().forEach(System.out::println);
+                return null;
+            }
+            compiled = result.getClasses();
+        }
+
+        Set<String> changedClasses = new HashSet<>(classes.keySet());
+        changedClasses.removeAll(compiled.keySet());
+        for (Map.Entry<String, byte[]> entry : compiled.entrySet()) {
+            if (!Arrays.equals(classes.get(entry.getKey()), entry.getValue())) {
+                changedClasses.add(entry.getKey());
+            }
+        }
+        classes.clear();
+        classes.putAll(compiled);
+
+        System.out.printf(Locale.ROOT, "Compiled %d sources in %.0f ms, %d classes changed%n", sources.size(),
+                (System.nanoTime() - start) / 1e6, changedClasses.size());
+        return changedClasses;
+    }
+
+    private void runIOFiles(List<Path> ioFiles) {
+        if (ioFiles.isEmpty()) {
+            System.out.println("No io-file is affected");
+            return;
+        }
+        Map<String, byte[]> snapshot = Collections.unmodifiableMap(new HashMap<>(classes));
+        int passed = 0;
+        for (Path ioFile : ioFiles) {
+            if (runIOFile(ioFile, snapshot)) {
+                passed++;
+            }
+        }
+        System.out.println(passed + "/" + ioFiles.size() + " io-files passed");
+    }
+
+    /**
+     * Runs an io-file with a fresh copy of the program
+     *
+     * @return true if all pairs passed
+     */
+    private boolean runIOFile(Path ioFile, Map<String, byte[]> snapshot) {
+        Path name = ioDirectory.relativize(ioFile);
+        try {
+            List<TestPair> testPairs = IOFileParser.parse(ioFile);
+            InMemoryClassLoader loader = new InMemoryClassLoader(snapshot, WatchMode.class.getClassLoader());
+            IsolatedProgram program = new IsolatedProgram(loader, mainClass);
+
+            long start = System.nanoTime();
+            IsolatedProgram.Result result = program.run(IsolatedProgram.inputsOf(testPairs),
+                    IOFileParser.readCommandLineArgs(ioFile), timeoutMillis);
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            touchedClassesByIOFile.put(ioFile, new HashSet<>(loader.getLoadedClasses()));
+
+            if (result == null) {
+                System.out.println("TIMEOUT " + name);
+                return false;
+            }
+            String failure = result.describeFirstFailure(testPairs);
+            if (failure != null) {
+                System.out.println("FAIL " + name + ": " + failure);
+                return false;
+            }
+            System.out.println("PASS " + name + " (" + testPairs.size() + " pairs, " + millis + " ms)");
+            return true;
+        } catch (IOException | ReflectiveOperationException | LinkageError e) {
+            System.out.println("ERROR " + name + ": " + e);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void collectChanges(WatchKey key, Set<Path> changed, Set<Path> deleted) {
+        Path directory = watchedDirectories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || directory == null) {
+                continue;
+            }
+            Path path = normalize(directory.resolve((Path) event.context()));
+            if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                changed.remove(path);
+                deleted.add(path);
+            } else if (Files.isDirectory(path)) {
+                try {
+                    register(path);
+                } catch (IOException e) {
+                    System.out.println("Unable to watch '" + path + "': " + e.getMessage());
+                }
+            } else {
+                deleted.remove(path);
+                changed.add(path);
+            }
+        }
+        if (!key.reset()) {
+            watchedDirectories.remove(key);
+        }
+    }
+
+    private void register(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes)
+                    throws IOException {
+                WatchKey key = directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                watchedDirectories.put(key, normalize(directory));
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static Path normalize(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    private static boolean isSource(Path path) {
+        return path.toString().endsWith(".java");
+    }
+}
@@ -0,0 +1,127 @@
+package utility;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class WatchModeTest {
+    private Path directory;
+    private Path ioDirectory;
+    private Path main;
+    private Path helper;
+    private Path other;
+    private WatchMode watchMode;
+
+    /**
+     * Creates a program whose main class calls 'Helper' or 'Other' depending on its command line arg.
+     * The io-file 'helper.io' only loads 'Helper', 'other.io' only loads 'Other'.
+     */
+    @BeforeEach
+    void createProgram() throws IOException {
+        directory = Files.createTempDirectory("watch-mode");
+        Path sources = Files.createDirectories(directory.resolve("src").resolve("sample"));
+        ioDirectory = Files.createDirectory(directory.resolve("io"));
+        main = IOFileFixtures.write(sources.resolve("Main.java"),
+                "package sample;",
+                "",
+                "public class Main {",
+                "    public static void main(String[] args) {",
+                "        System.setProperty(\"sample.answer\", args[0].equals(\"helper\") ? Helper.answer()"
+                        + " : Other.answer());",
+                "    }",
+                "}");
+        helper = writeHelper("return \"helper\";");
+        other = IOFileFixtures.write(sources.resolve("Other.java"),
+                "package sample;",
+                "",
+                "public class Other {",
+                "    public static String answer() {",
+                "        return \"other\";",
+                "    }",
+                "}");
+        IOFileFixtures.write(ioDirectory.resolve("helper.io"), TestBase.IO_FILE_COMMAND_LINE_ARGS_PREFIX + "helper");
+        IOFileFixtures.write(ioDirectory.resolve("other.io"), TestBase.IO_FILE_COMMAND_LINE_ARGS_PREFIX + "other");
+
+        watchMode = new WatchMode(directory.resolve("src"), "sample.Main", ioDirectory, 10000);
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        System.clearProperty("sample.answer");
+        IOFileFixtures.delete(directory);
+    }
+
+    @Test
+    void findsChangedClasses() throws IOException {
+        assertEquals(classes("sample.Main", "sample.Helper", "sample.Other"), watchMode.recompile());
+        assertEquals(Collections.emptySet(), watchMode.recompile());
+
+        writeHelper("return \"changed\";");
+        assertEquals(classes("sample.Helper"), watchMode.recompile());
+
+        Files.delete(other);
+        assertNull(watchMode.recompile());
+        IOFileFixtures.write(main,
+                "package sample;",
+                "",
+                "public class Main {",
+                "    public static void main(String[] args) {",
+                "        System.setProperty(\"sample.answer\", Helper.answer());",
+                "    }",
+                "}");
+        assertEquals(classes("sample.Main", "sample.Other"), watchMode.recompile());
+    }
+
+    @Test
+    void rerunsIOFilesOfChangedClasses() throws IOException {
+        Path helperIOFile = normalize(ioDirectory.resolve("helper.io"));
+        Path otherIOFile = normalize(ioDirectory.resolve("other.io"));
+        Set<Path> none = Collections.emptySet();
+        watchMode.recompile();
+        assertEquals(Arrays.asList(helperIOFile, otherIOFile),
+                watchMode.onChange(new LinkedHashSet<>(Arrays.asList(helperIOFile, otherIOFile)), none));
+        assertEquals("other", System.getProperty("sample.answer"));
+
+        writeHelper("return \"changed\";");
+        Set<Path> changedHelper = Collections.singleton(normalize(helper));
+        assertEquals(Collections.singletonList(helperIOFile), watchMode.onChange(changedHelper, none));
+        assertEquals("changed", System.getProperty("sample.answer"));
+
+        assertEquals(Collections.emptyList(), watchMode.onChange(changedHelper, none));
+        assertEquals(Collections.singletonList(otherIOFile),
+                watchMode.onChange(Collections.singleton(otherIOFile), Collections.singleton(helperIOFile)));
+        writeHelper("return \"again\";");
+        assertEquals(Collections.emptyList(), watchMode.onChange(changedHelper, none));
+    }
+
+    private Path writeHelper(String body) throws IOException {
+        return IOFileFixtures.write(directory.resolve("src").resolve("sample").resolve("Helper.java"),
+                "package sample;",
+                "",
+                "public class Helper {",
+                "    public static String answer() {",
+                "        " + body,
+                "    }",
+                "}");
+    }
+
+    private static Path normalize(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+
+    private static Set<String> classes(String... names) {
+        return new HashSet<>(Arrays.asList(names));
+    }
+}